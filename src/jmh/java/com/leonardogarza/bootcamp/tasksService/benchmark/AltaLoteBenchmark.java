@@ -0,0 +1,72 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.leonardogarza.bootcamp.tasksService.controller.TareaController;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Alta de tareas una por una (POST /tareas) contra el alta por lote (POST /tareas/batch), en tiempo por tarea.
+//Con hibernate.jdbc.batch_size=1 el lote sigue usando un solo saveAll pero sin batches JDBC, para separar ambos efectos.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AltaLoteBenchmark {
+
+    private static final int LOTE = 500;
+
+    @Param({"50", "1"})
+    public int tamanoBatchJdbc;
+
+    private ConfigurableApplicationContext contexto;
+    private TareaController tareaController;
+    private Usuario usuario;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = ContextoBenchmark.iniciar("spring.jpa.properties.hibernate.jdbc.batch_size=" + tamanoBatchJdbc);
+        tareaController = contexto.getBean(TareaController.class);
+        usuario = new Usuario();
+        usuario.setId(1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void unaPorUna(Blackhole blackhole) {
+        for (Tarea tarea : tareas()) {
+            blackhole.consume(tareaController.createTarea(tarea, UriComponentsBuilder.newInstance(), null));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public ResponseEntity<?> porLote() {
+        return tareaController.createTareas(tareas());
+    }
+
+    private List<Tarea> tareas() {
+        List<Tarea> tareas = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            tareas.add(new Tarea("Nueva tarea " + i, "Tarea creada por el benchmark", EstadoTarea.PENDIENTE, LocalDate.of(2027, 1, 1), usuario));
+        }
+        return tareas;
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Tiempo desde que se lanza la JVM hasta el primer GET /tareas exitoso, lo que tarda una instancia nueva en atender.
+//Cada invocación arranca un proceso aparte: normal es el fat jar tal cual, rapido el mismo jar con el contexto AOT
+//del perfil de Maven rapido y el perfil de Spring rapido (inicialización diferida). El archivo CDS solo se entrena
+//en la imagen de Docker, aquí no se mide.
+//Requiere construir antes el artefacto:
+//  ./mvnw -Prapido package -DskipTests
+//  ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="Arranque"
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArranqueBenchmark {
+
+    private static final String JAR = "tasksService-0.0.1-SNAPSHOT.jar";
+    private static final Duration LIMITE = Duration.ofMinutes(3);
+
+    @Param({"normal", "rapido"})
+    public String modo;
+
+    //Directorio target del proyecto, exec:exec corre desde la raíz
+    private final File target = new File(System.getProperty("arranque.target", "target"));
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private Process proceso;
+    private List<String> comando;
+    private URI uri;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+        int puerto;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            puerto = socket.getLocalPort();
+        }
+        uri = URI.create("http://127.0.0.1:" + puerto + "/tareas");
+        comando = new ArrayList<>(List.of(java()));
+        if ("rapido".equals(modo)) {
+            comando.addAll(List.of("-Dspring.aot.enabled=true", "-jar", new File(target, JAR).getPath(), "--spring.profiles.active=rapido"));
+        } else {
+            comando.addAll(List.of("-jar", new File(target, JAR).getPath()));
+        }
+        comando.add("--server.port=" + puerto);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws InterruptedException {
+        if (proceso == null) {
+            return;
+        }
+        proceso.destroy();
+        if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+            proceso.destroyForcibly().waitFor();
+        }
+    }
+
+    @Benchmark
+    public int primerGet() throws Exception {
+        proceso = new ProcessBuilder(comando)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).GET().build();
+        long limite = System.nanoTime() + LIMITE.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException("El proceso terminó con código " + proceso.exitValue());
+            }
+            try {
+                int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    return status;
+                }
+            } catch (IOException e) {
+                //Todavía no escucha el puerto
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Sin respuesta de " + uri + " en " + LIMITE);
+    }
+
+    private static String java() {
+        return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    }
+
+}
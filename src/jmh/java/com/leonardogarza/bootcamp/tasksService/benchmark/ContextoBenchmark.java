@@ -0,0 +1,48 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.leonardogarza.bootcamp.tasksService.TasksServiceApplication;
+import com.leonardogarza.bootcamp.tasksService.init.GeneradorDatos;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+
+//Arranque de la aplicación (sin servidor web) y datos de prueba compartidos por los benchmarks.
+final class ContextoBenchmark {
+
+    static final long SEMILLA = 42L;
+    static final LocalDate REFERENCIA = LocalDate.of(2026, 1, 1);
+
+    private ContextoBenchmark() {}
+
+    static ConfigurableApplicationContext iniciar(String... propiedades) {
+        return iniciar(WebApplicationType.NONE, propiedades);
+    }
+
+    //Con servidor web en un puerto libre, ver puerto(contexto)
+    static ConfigurableApplicationContext iniciarWeb(String... propiedades) {
+        return iniciar(WebApplicationType.SERVLET, propiedades);
+    }
+
+    static int puerto(ConfigurableApplicationContext contexto) {
+        return Integer.parseInt(contexto.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    private static ConfigurableApplicationContext iniciar(WebApplicationType tipo, String... propiedades) {
+        return new SpringApplicationBuilder(TasksServiceApplication.class)
+                .web(tipo)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "tareas.vencidas.intervalo-ms=3600000", "server.port=0",
+                        //Los benchmarks HTTP mandan todo desde un solo cliente, sin control de admisión mediría los rechazos
+                        "admision.habilitada=false")
+                .properties(propiedades)
+                .run();
+    }
+
+    //Agrega usuarios y tareas con una semilla y fecha fijas para que todas las corridas midan los mismos datos
+    static void cargarDatos(ConfigurableApplicationContext contexto, int usuarios, int tareas) {
+        contexto.getBean(GeneradorDatos.class).generar(usuarios, tareas, SEMILLA, REFERENCIA);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.leonardogarza.bootcamp.tasksService.controller.TareaController;
+import com.leonardogarza.bootcamp.tasksService.controller.UsuarioController;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Métodos de los controladores llamados en el mismo proceso, sin HTTP ni serialización.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControladorBenchmark {
+
+    private static final int TAREAS = 10_000;
+
+    private ConfigurableApplicationContext contexto;
+    private TareaController tareaController;
+    private UsuarioController usuarioController;
+    private Usuario usuario;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = ContextoBenchmark.iniciar();
+        ContextoBenchmark.cargarDatos(contexto, 100, TAREAS);
+        tareaController = contexto.getBean(TareaController.class);
+        usuarioController = contexto.getBean(UsuarioController.class);
+        usuario = new Usuario();
+        usuario.setId(1L);
+    }
+
+    //Los listados arman el link de la siguiente página a partir de la petición actual
+    @Setup(Level.Iteration)
+    public void peticion() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/tareas")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> findTareaById() {
+        return tareaController.findById(ThreadLocalRandom.current().nextLong(1, TAREAS), null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> findUsuarioById() {
+        return usuarioController.findById(ThreadLocalRandom.current().nextLong(1, 100), null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> listAllTareas() {
+        return tareaController.listAll(null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> createTarea() {
+        Tarea tarea = new Tarea("Nueva tarea", "Tarea creada por el benchmark", EstadoTarea.PENDIENTE, LocalDate.of(2027, 1, 1), usuario);
+        return tareaController.createTarea(tarea, UriComponentsBuilder.newInstance(), null);
+    }
+
+}
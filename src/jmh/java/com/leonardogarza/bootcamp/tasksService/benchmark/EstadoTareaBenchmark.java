@@ -0,0 +1,31 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Validación de la etiqueta de estado: búsqueda por switch contra el recorrido de la lista de estados válidos.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EstadoTareaBenchmark {
+
+    @Param({"Pendiente", "Completada", "Estatus invalido"})
+    public String etiqueta;
+
+    @Benchmark
+    public EstadoTarea validarConSwitch() {
+        return EstadoTarea.deEtiqueta(etiqueta);
+    }
+
+    @Benchmark
+    public boolean validarConLista() {
+        return Constantes.ESTADOS_VALIDOS.contains(etiqueta);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Prueba de carga HTTP: hilos de plataforma (un hilo de Tomcat por petición) contra hilos virtuales (perfil virtual).
+//SampleTime reporta throughput y percentiles (p99) de cada modo con muchos clientes concurrentes.
+//Los hilos virtuales solo se activan en Java 21+, en Java 17 el modo virtual solo cambia el pool de conexiones.
+//  ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="HilosVirtuales -t 400"
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(256)
+@State(Scope.Benchmark)
+public class HilosVirtualesBenchmark {
+
+    private static final int TAREAS = 50_000;
+
+    @Param({"plataforma", "virtual"})
+    public String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private ExecutorService executor;
+    private HttpClient httpClient;
+    private String base;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("virtual".equals(modo) && Runtime.version().feature() < 21) {
+            System.err.println("Java " + Runtime.version().feature() + " no tiene hilos virtuales, el modo virtual usa hilos de plataforma y solo cambia el pool de conexiones");
+        }
+        contexto = "virtual".equals(modo)
+                ? ContextoBenchmark.iniciarWeb("spring.profiles.active=virtual")
+                : ContextoBenchmark.iniciarWeb();
+        ContextoBenchmark.cargarDatos(contexto, 1_000, TAREAS);
+        base = "http://127.0.0.1:" + ContextoBenchmark.puerto(contexto);
+        executor = Executors.newFixedThreadPool(16);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        contexto.close();
+    }
+
+    //Página del listado: una consulta JDBC real por petición (no pasa por el cache de segundo nivel)
+    @Benchmark
+    public int listarPagina() throws Exception {
+        return get("/tareas?size=20");
+    }
+
+    @Benchmark
+    public int tareaPorId() throws Exception {
+        return get("/tareas/" + ThreadLocalRandom.current().nextInt(1, TAREAS));
+    }
+
+    private int get(String ruta) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + ruta)).timeout(Duration.ofSeconds(30)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+}
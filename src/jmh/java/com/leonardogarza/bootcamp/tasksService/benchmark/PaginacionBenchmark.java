@@ -0,0 +1,71 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Paginación por llave contra OFFSET a distintas profundidades de la tabla: la primera debe mantenerse plana.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginacionBenchmark {
+
+    private static final int TAREAS = 200_000;
+    private static final int TAMANO_PAGINA = 100;
+
+    @Param({"0", "10000", "100000", "199000"})
+    public int profundidad;
+
+    private ConfigurableApplicationContext contexto;
+    private TareaRepository tareaRepository;
+    private EntityManagerFactory entityManagerFactory;
+    private long ultimoId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = ContextoBenchmark.iniciar();
+        ContextoBenchmark.cargarDatos(contexto, 1_000, TAREAS);
+        tareaRepository = contexto.getBean(TareaRepository.class);
+        entityManagerFactory = contexto.getBean(EntityManagerFactory.class);
+        //Id de la última tarea antes de la página pedida, lo que un cliente traería en el cursor
+        ultimoId = profundidad == 0 ? 0 : paginaOffset(profundidad - 1, 1).get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Tarea> keyset() {
+        return tareaRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, Limit.of(TAMANO_PAGINA));
+    }
+
+    @Benchmark
+    public List<Tarea> offset() {
+        return paginaOffset(profundidad, TAMANO_PAGINA);
+    }
+
+    private List<Tarea> paginaOffset(int offset, int tamano) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("select t from Tarea t join fetch t.usuarioAsignado order by t.id", Tarea.class)
+                    .setFirstResult(offset)
+                    .setMaxResults(tamano)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import com.leonardogarza.bootcamp.tasksService.repository.UsuarioRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//save y findById de los repositorios contra H2 en memoria, con y sin cache de segundo nivel.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositorioBenchmark {
+
+    private static final int TAREAS = 10_000;
+
+    @Param({"true", "false"})
+    public boolean cacheSegundoNivel;
+
+    private ConfigurableApplicationContext contexto;
+    private TareaRepository tareaRepository;
+    private Usuario usuario;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = ContextoBenchmark.iniciar("spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cacheSegundoNivel);
+        ContextoBenchmark.cargarDatos(contexto, 100, TAREAS);
+        tareaRepository = contexto.getBean(TareaRepository.class);
+        usuario = contexto.getBean(UsuarioRepository.class).findById(1L).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Tarea> findById() {
+        return tareaRepository.findById(ThreadLocalRandom.current().nextLong(1, TAREAS));
+    }
+
+    @Benchmark
+    public Tarea save() {
+        return tareaRepository.save(new Tarea("Nueva tarea", "Tarea creada por el benchmark",
+                EstadoTarea.PENDIENTE, LocalDate.of(2027, 1, 1), usuario));
+    }
+
+}
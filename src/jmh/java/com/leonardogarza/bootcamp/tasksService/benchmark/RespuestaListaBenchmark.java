@@ -0,0 +1,78 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.leonardogarza.bootcamp.tasksService.json.Campos;
+import com.leonardogarza.bootcamp.tasksService.json.JsonConfig;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//Costo y tamaño de una página de GET /tareas: todos los campos contra ?fields=id,titulo,estado,
+//con y sin Blackbird y con y sin gzip (lo que hace Tomcat con server.compression).
+//El tamaño de la respuesta se imprime al preparar cada combinación; con -prof gc se ve también la memoria asignada.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RespuestaListaBenchmark {
+
+    @Param({"base", "blackbird"})
+    public String serializacion;
+
+    @Param({"todos", "id,titulo,estado"})
+    public String campos;
+
+    @Param({"identidad", "gzip"})
+    public String codificacion;
+
+    private ObjectWriter writer;
+    private List<Tarea> pagina;
+
+    @Setup
+    public void setup() throws Exception {
+        Jackson2ObjectMapperBuilder builder = JsonConfig.configurar(Jackson2ObjectMapperBuilder.json());
+        if (serializacion.equals("blackbird")) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        ObjectMapper objectMapper = builder.build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Tarea.class));
+        if (!campos.equals("todos")) {
+            writer = writer.with(Campos.filtros(campos));
+        }
+        Usuario usuario = new Usuario("Juan Carlos Bodoque", "notaverde@21minutos.com");
+        usuario.setId(3L);
+        pagina = new ArrayList<>();
+        for (long i = 1; i <= Constantes.PAGINA_TAMANO_DEFAULT; i++) {
+            Tarea tarea = new Tarea("Nota Verde " + i, "Nota verde para el siguiente programa de 31 minutos",
+                    EstadoTarea.EN_PROGRESO, LocalDate.of(2025, 5, 16).plusDays(i), usuario);
+            tarea.setId(i);
+            pagina.add(tarea);
+        }
+        System.out.println("Bytes por respuesta (" + campos + ", " + codificacion + "): " + serializarPagina());
+    }
+
+    @Benchmark
+    public int serializarPagina() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(8192);
+        try (OutputStream cuerpo = codificacion.equals("gzip") ? new GZIPOutputStream(salida) : salida) {
+            writer.writeValue(cuerpo, pagina);
+        }
+        return salida.size();
+    }
+
+}
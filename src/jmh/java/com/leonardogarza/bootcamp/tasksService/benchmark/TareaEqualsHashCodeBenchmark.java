@@ -0,0 +1,55 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+//Costo de Tarea.equals/hashCode, que recorren el usuario asignado.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TareaEqualsHashCodeBenchmark {
+
+    private Tarea tarea;
+    private Tarea igual;
+    private Tarea distinta;
+
+    @Setup
+    public void setup() {
+        Usuario usuario = new Usuario("Mich B", "michb@gmail.com");
+        usuario.setId(2L);
+        tarea = nueva(usuario, "Presentacion Trabajo");
+        igual = nueva(usuario, "Presentacion Trabajo");
+        distinta = nueva(usuario, "Presentacion Trabajo final");
+    }
+
+    private Tarea nueva(Usuario usuario, String titulo) {
+        Tarea nueva = new Tarea(titulo, "Hacer presentación del trabajo pendiente",
+                EstadoTarea.COMPLETADA, LocalDate.of(2025, 4, 23), usuario);
+        nueva.setId(2L);
+        return nueva;
+    }
+
+    @Benchmark
+    public int hashCodeTarea() {
+        return tarea.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsIgual() {
+        return tarea.equals(igual);
+    }
+
+    @Benchmark
+    public boolean equalsDistinta() {
+        return tarea.equals(distinta);
+    }
+
+}
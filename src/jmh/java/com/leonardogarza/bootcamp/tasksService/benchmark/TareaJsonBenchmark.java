@@ -0,0 +1,69 @@
+package com.leonardogarza.bootcamp.tasksService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Serialización y deserialización JSON de Tarea con el ObjectMapper que configura Spring Boot.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TareaJsonBenchmark {
+
+    private ObjectWriter writerTarea;
+    private ObjectWriter writerLista;
+    private ObjectReader readerTarea;
+    private Tarea tarea;
+    private List<Tarea> lista;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Usuario usuario = new Usuario("Juan Carlos Bodoque", "notaverde@21minutos.com");
+        usuario.setId(3L);
+        tarea = new Tarea("Nota Verde", "Nota verde para el siguiente programa de 31 minutos",
+                EstadoTarea.PENDIENTE, LocalDate.of(2025, 5, 16), usuario);
+        tarea.setId(3L);
+        lista = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            Tarea copia = new Tarea(tarea.getTitulo() + i, tarea.getDescripcion(), EstadoTarea.EN_PROGRESO, tarea.getFechaLimite(), usuario);
+            copia.setId(i);
+            lista.add(copia);
+        }
+        writerTarea = objectMapper.writerFor(Tarea.class);
+        writerLista = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Tarea.class));
+        readerTarea = objectMapper.readerFor(Tarea.class);
+        json = writerTarea.writeValueAsString(tarea);
+    }
+
+    @Benchmark
+    public byte[] serializarTarea() throws Exception {
+        return writerTarea.writeValueAsBytes(tarea);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializarListaDe100() throws Exception {
+        return writerLista.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public Tarea deserializarTarea() throws Exception {
+        return readerTarea.readValue(json);
+    }
+
+}
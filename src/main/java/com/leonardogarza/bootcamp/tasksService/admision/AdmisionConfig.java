@@ -0,0 +1,39 @@
+package com.leonardogarza.bootcamp.tasksService.admision;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//El filtro solo cubre la API; Actuator (health, métricas) sigue respondiendo aunque el servicio esté saturado.
+@Configuration
+@ConditionalOnProperty(name = "admision.habilitada", havingValue = "true", matchIfMissing = true)
+public class AdmisionConfig {
+
+    @Bean
+    FilterRegistrationBean<FiltroAdmision> filtroAdmision(
+            @Value("${admision.lectura.tasa}") double tasaLectura,
+            @Value("${admision.lectura.rafaga}") double rafagaLectura,
+            @Value("${admision.lectura.concurrencia-inicial}") int inicialLectura,
+            @Value("${admision.lectura.concurrencia-minima}") int minimaLectura,
+            @Value("${admision.lectura.concurrencia-maxima}") int maximaLectura,
+            @Value("${admision.escritura.tasa}") double tasaEscritura,
+            @Value("${admision.escritura.rafaga}") double rafagaEscritura,
+            @Value("${admision.escritura.concurrencia-inicial}") int inicialEscritura,
+            @Value("${admision.escritura.concurrencia-minima}") int minimaEscritura,
+            @Value("${admision.escritura.concurrencia-maxima}") int maximaEscritura,
+            @Value("${admision.header-cliente:}") String headerCliente,
+            @Value("${admision.tolerancia-latencia:2.0}") double toleranciaLatencia,
+            MeterRegistry meterRegistry){
+        FiltroAdmision filtro = new FiltroAdmision(
+                new FiltroAdmision.Presupuesto(tasaLectura, rafagaLectura, inicialLectura, minimaLectura, maximaLectura),
+                new FiltroAdmision.Presupuesto(tasaEscritura, rafagaEscritura, inicialEscritura, minimaEscritura, maximaEscritura),
+                headerCliente, toleranciaLatencia, meterRegistry);
+        FilterRegistrationBean<FiltroAdmision> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/tareas", "/tareas/*", "/usuarios", "/usuarios/*");
+        return registro;
+    }
+
+}
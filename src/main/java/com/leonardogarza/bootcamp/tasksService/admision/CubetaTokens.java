@@ -0,0 +1,30 @@
+package com.leonardogarza.bootcamp.tasksService.admision;
+
+//Cubeta de tokens de un cliente: se rellena a tasa tokens por segundo hasta capacidad (la ráfaga permitida).
+class CubetaTokens {
+
+    private final double capacidad;
+    private final double tokensPorNano;
+    private double tokens;
+    private long ultimaRecarga;
+
+    CubetaTokens(double tasa, double capacidad) {
+        this.capacidad = capacidad;
+        this.tokensPorNano = tasa / 1_000_000_000d;
+        this.tokens = capacidad;
+        this.ultimaRecarga = System.nanoTime();
+    }
+
+    //Toma un token y regresa 0, o regresa cuántos nanosegundos faltan para que haya uno
+    synchronized long tomar() {
+        long ahora = System.nanoTime();
+        tokens = Math.min(capacidad, tokens + (ahora - ultimaRecarga) * tokensPorNano);
+        ultimaRecarga = ahora;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPorNano);
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.leonardogarza.bootcamp.tasksService.admision;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+//Control de admisión delante de los controladores, con presupuestos separados para lecturas (GET/HEAD) y escrituras.
+//1. Cubeta de tokens por cliente: si se acabó su presupuesto responde 429 con Retry-After.
+//2. Límite de concurrencia adaptativo (LimiteAdaptativo) para todo el servicio: si está lleno responde 503 con Retry-After.
+//Así el exceso se rechaza en microsegundos en lugar de esperar una conexión JDBC y alargar la latencia de todos.
+public class FiltroAdmision extends OncePerRequestFilter {
+
+    //Límites de un tipo de solicitud, ver admision.* en application.properties
+    public record Presupuesto(double tasa, double rafaga, int concurrenciaInicial, int concurrenciaMinima, int concurrenciaMaxima) {
+    }
+
+    private enum Tipo { LECTURA, ESCRITURA }
+
+    private final String headerCliente;
+    private final Control lectura;
+    private final Control escritura;
+
+    public FiltroAdmision(Presupuesto presupuestoLectura, Presupuesto presupuestoEscritura, String headerCliente,
+                          double toleranciaLatencia, MeterRegistry meterRegistry){
+        this.headerCliente = headerCliente;
+        this.lectura = new Control(Tipo.LECTURA, presupuestoLectura, toleranciaLatencia, meterRegistry);
+        this.escritura = new Control(Tipo.ESCRITURA, presupuestoEscritura, toleranciaLatencia, meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Control control = esLectura(request.getMethod()) ? lectura : escritura;
+
+        long espera = control.cubetas.get(cliente(request), llave -> control.nuevaCubeta()).tomar();
+        if (espera > 0) {
+            control.limiteCliente.increment();
+            rechazar(response, HttpStatus.TOO_MANY_REQUESTS, segundos(espera), "Demasiadas solicitudes, intente de nuevo más tarde");
+            return;
+        }
+        if (!control.limite.adquirir()) {
+            control.sobrecarga.increment();
+            rechazar(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Servicio saturado, intente de nuevo más tarde");
+            return;
+        }
+        control.admitidas.increment();
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            //Las respuestas asíncronas (stream, exportación) liberan el lugar al salir del hilo pero no cuentan su latencia
+            control.limite.liberar(request.isAsyncStarted() ? -1 : System.nanoTime() - inicio);
+        }
+    }
+
+    private String cliente(HttpServletRequest request) {
+        String cliente = headerCliente.isEmpty() ? null : request.getHeader(headerCliente);
+        return cliente != null && !cliente.isBlank() ? cliente : request.getRemoteAddr();
+    }
+
+    private static boolean esLectura(String metodo) {
+        return "GET".equals(metodo) || "HEAD".equals(metodo) || "OPTIONS".equals(metodo);
+    }
+
+    private static long segundos(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private static void rechazar(HttpServletResponse response, HttpStatus status, long reintentarEn, String mensaje) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(reintentarEn));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensaje);
+    }
+
+    //Cubetas por cliente, límite de concurrencia y métricas de un tipo de solicitud
+    private static final class Control {
+
+        private final Presupuesto presupuesto;
+        //Los clientes inactivos se olvidan, con la cubeta llena de nuevo no cambia nada
+        private final Cache<String, CubetaTokens> cubetas = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .maximumSize(100_000)
+                .build();
+        private final LimiteAdaptativo limite;
+        private final Counter admitidas;
+        private final Counter limiteCliente;
+        private final Counter sobrecarga;
+
+        private Control(Tipo tipo, Presupuesto presupuesto, double toleranciaLatencia, MeterRegistry meterRegistry) {
+            this.presupuesto = presupuesto;
+            this.limite = new LimiteAdaptativo(presupuesto.concurrenciaInicial(), presupuesto.concurrenciaMinima(),
+                    presupuesto.concurrenciaMaxima(), toleranciaLatencia, 0.9);
+            String etiqueta = tipo.name().toLowerCase();
+            this.admitidas = contador(meterRegistry, etiqueta, "admitida");
+            this.limiteCliente = contador(meterRegistry, etiqueta, "limite_cliente");
+            this.sobrecarga = contador(meterRegistry, etiqueta, "sobrecarga");
+            Gauge.builder("admision.concurrencia.limite", limite, LimiteAdaptativo::limite).tag("tipo", etiqueta).register(meterRegistry);
+            Gauge.builder("admision.concurrencia.en_curso", limite, LimiteAdaptativo::enCurso).tag("tipo", etiqueta).register(meterRegistry);
+        }
+
+        private CubetaTokens nuevaCubeta() {
+            return new CubetaTokens(presupuesto.tasa(), presupuesto.rafaga());
+        }
+
+        private static Counter contador(MeterRegistry meterRegistry, String tipo, String resultado) {
+            return Counter.builder("admision.solicitudes").tag("tipo", tipo).tag("resultado", resultado).register(meterRegistry);
+        }
+
+    }
+
+}
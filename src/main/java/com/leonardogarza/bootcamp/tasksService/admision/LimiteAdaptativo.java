@@ -0,0 +1,89 @@
+package com.leonardogarza.bootcamp.tasksService.admision;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+//Límite de solicitudes concurrentes que se ajusta con la latencia observada (aumento aditivo, disminución multiplicativa).
+//Se comparan dos promedios exponenciales de la latencia: uno corto (últimas ~10 solicitudes) y uno largo (~500).
+//Si el corto pasa de tolerancia veces el largo la cola está creciendo (normalmente esperando conexión JDBC)
+//y el límite baja, como máximo una vez cada 100 ms. Mientras no pasa y el límite se está usando, sube de a poco.
+public class LimiteAdaptativo {
+
+    private static final long VENTANA_DISMINUCION_NANOS = 100_000_000L;
+    private static final double PESO_CORTO = 1 / 10d;
+    private static final double PESO_LARGO = 1 / 500d;
+
+    private final int minimo;
+    private final int maximo;
+    private final double tolerancia;
+    private final double factorDisminucion;
+    private final AtomicInteger enCurso = new AtomicInteger();
+
+    //Límite (con el aumento fraccionario) y promedios en un solo valor inmutable que ajustar cambia con compareAndSet
+    private final AtomicReference<Estado> estado;
+
+    private record Estado(double limite, double latenciaCorta, double latenciaLarga, long ultimaDisminucion) {
+    }
+
+    public LimiteAdaptativo(int inicial, int minimo, int maximo, double tolerancia, double factorDisminucion) {
+        this.estado = new AtomicReference<>(new Estado(inicial, 0, 0, 0));
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.factorDisminucion = factorDisminucion;
+    }
+
+    //Reserva un lugar; si regresa true se debe llamar a liberar al terminar
+    public boolean adquirir() {
+        int actual = enCurso.incrementAndGet();
+        if (actual > limite()) {
+            enCurso.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    //latenciaNanos negativa cuando la solicitud no debe contar para el ajuste (por ejemplo respuestas asíncronas)
+    public void liberar(long latenciaNanos) {
+        int concurrencia = enCurso.getAndDecrement();
+        if (latenciaNanos >= 0) {
+            ajustar(latenciaNanos, concurrencia);
+        }
+    }
+
+    public int limite() {
+        return (int) estado.get().limite();
+    }
+
+    public int enCurso() {
+        return enCurso.get();
+    }
+
+    private void ajustar(long latencia, int concurrencia) {
+        long ahora = System.nanoTime();
+        Estado actual;
+        do {
+            actual = estado.get();
+        } while (!estado.compareAndSet(actual, siguiente(actual, latencia, concurrencia, ahora)));
+    }
+
+    private Estado siguiente(Estado actual, long latencia, int concurrencia, long ahora) {
+        double latenciaCorta = actual.latenciaLarga() == 0 ? latencia : actual.latenciaCorta();
+        double latenciaLarga = actual.latenciaLarga() == 0 ? latencia : actual.latenciaLarga();
+        latenciaCorta += (latencia - latenciaCorta) * PESO_CORTO;
+        latenciaLarga += (latencia - latenciaLarga) * PESO_LARGO;
+
+        double limite = actual.limite();
+        long ultimaDisminucion = actual.ultimaDisminucion();
+        if (latenciaCorta > latenciaLarga * tolerancia) {
+            if (ahora - ultimaDisminucion >= VENTANA_DISMINUCION_NANOS) {
+                limite = Math.max(minimo, limite * factorDisminucion);
+                ultimaDisminucion = ahora;
+            }
+        } else if (concurrencia * 2 >= limite) {
+            limite = Math.min(maximo, limite + 1 / limite);
+        }
+        return new Estado(limite, latenciaCorta, latenciaLarga, ultimaDisminucion);
+    }
+
+}
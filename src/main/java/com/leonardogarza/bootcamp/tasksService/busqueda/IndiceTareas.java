@@ -0,0 +1,221 @@
+package com.leonardogarza.bootcamp.tasksService.busqueda;
+
+import com.leonardogarza.bootcamp.tasksService.evento.CargaMasivaTareas;
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+//Índice invertido en memoria sobre titulo y descripcion de las tareas.
+//Se reconstruye al arrancar (y tras una CargaMasivaTareas) y después se mantiene con los TareaEvento que publican las escrituras.
+//Los términos se guardan en minúsculas y sin acentos; la búsqueda acepta prefijos y ordena por relevancia.
+@Component
+public class IndiceTareas {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceTareas.class);
+
+    private static final int PESO_TITULO = 3;
+    private static final int PESO_DESCRIPCION = 1;
+    //Un término que solo coincide por prefijo vale la mitad que uno exacto
+    private static final double FACTOR_PREFIJO = 0.5;
+    //Los términos de una letra solo se buscan exactos, como prefijo coincidirían con casi todo
+    private static final int PREFIJO_MINIMO = 2;
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "o", "para", "por", "que", "se", "su", "un", "una", "y");
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    public record Resultado(List<Long> ids, long total) {
+    }
+
+    //Términos de cada campo de una tarea con su frecuencia, para poder quitarlos al actualizar o eliminar
+    private record Documento(Map<String, Integer> titulo, Map<String, Integer> descripcion) {
+    }
+
+    private final TareaRepository tareaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private Contenido contenido = new Contenido();
+    //Eventos recibidos mientras se reconstruye, null si no hay una reconstrucción en curso
+    private List<TareaEvento> durante;
+
+    public IndiceTareas(TareaRepository tareaRepository, TransactionTemplate transactionTemplate){
+        this.tareaRepository = tareaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    //Se lee solo id, titulo y descripcion en streaming a un índice nuevo, sin bloquear escrituras ni búsquedas;
+    //al final se repiten sobre él los eventos que llegaron mientras tanto y se cambia por el actual
+    @EventListener({ApplicationReadyEvent.class, CargaMasivaTareas.class})
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        Contenido nuevo = new Contenido();
+        List<TareaEvento> recibidos = new ArrayList<>();
+        recibirDurante(recibidos);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<TareaRepository.TextoTarea> textos = tareaRepository.streamTextos()) {
+                    textos.forEach(texto -> nuevo.agregar(texto.getId(), new Documento(frecuencias(texto.getTitulo()), frecuencias(texto.getDescripcion()))));
+                }
+            });
+        } catch (RuntimeException e) {
+            recibirDurante(null);
+            throw e;
+        }
+        candado.writeLock().lock();
+        try {
+            recibidos.forEach(nuevo::aplicar);
+            contenido = nuevo;
+            durante = null;
+        } finally {
+            candado.writeLock().unlock();
+        }
+        log.info("Índice de búsqueda reconstruido: {} tareas, {} términos en {} ms",
+                nuevo.documentos.size(), nuevo.indice.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void recibirDurante(List<TareaEvento> recibidos) {
+        candado.writeLock().lock();
+        try {
+            durante = recibidos;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void alCambiar(TareaEvento evento) {
+        if (evento.tipo() == TareaEvento.Tipo.ACTUALIZADA && evento.titulo() == null && evento.descripcion() == null) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            if (durante != null) {
+                durante.add(evento);
+            }
+            contenido.aplicar(evento);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    //Todas las palabras de la consulta deben aparecer (exactas o como prefijo). Lanza IllegalArgumentException si no hay palabras.
+    public Resultado buscar(String consulta, int desde, int tamano) {
+        Set<String> terminos = new LinkedHashSet<>(frecuencias(consulta).keySet());
+        if (terminos.isEmpty()) {
+            throw new IllegalArgumentException("La búsqueda debe incluir al menos una palabra");
+        }
+        List<Map.Entry<Long, Double>> ordenados;
+        candado.readLock().lock();
+        try {
+            Map<Long, Double> puntajes = null;
+            for (String termino : terminos) {
+                Map<Long, Double> coincidencias = coincidencias(termino);
+                if (puntajes == null) {
+                    puntajes = coincidencias;
+                } else {
+                    puntajes.keySet().retainAll(coincidencias.keySet());
+                    puntajes.replaceAll((id, puntaje) -> puntaje + coincidencias.get(id));
+                }
+                if (puntajes.isEmpty()) {
+                    break;
+                }
+            }
+            ordenados = new ArrayList<>(puntajes.entrySet());
+        } finally {
+            candado.readLock().unlock();
+        }
+        ordenados.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = ordenados.stream().skip(desde).limit(tamano).map(Map.Entry::getKey).toList();
+        return new Resultado(ids, ordenados.size());
+    }
+
+    //Puntaje de cada tarea para un término: peso en la tarea por idf, el mejor entre la coincidencia exacta y las de prefijo
+    private Map<Long, Double> coincidencias(String termino) {
+        Map<Long, Double> puntajes = new HashMap<>();
+        sumar(puntajes, contenido.indice.get(termino), 1.0);
+        if (termino.length() >= PREFIJO_MINIMO) {
+            for (Map<Long, Integer> tareas : contenido.indice.subMap(termino, false, termino + Character.MAX_VALUE, false).values()) {
+                sumar(puntajes, tareas, FACTOR_PREFIJO);
+            }
+        }
+        return puntajes;
+    }
+
+    private void sumar(Map<Long, Double> puntajes, Map<Long, Integer> tareas, double factor) {
+        if (tareas == null) {
+            return;
+        }
+        double idf = Math.log(1 + (double) contenido.documentos.size() / tareas.size());
+        tareas.forEach((id, peso) -> puntajes.merge(id, peso * idf * factor, Math::max));
+    }
+
+    private static class Contenido {
+        //término -> (id de tarea -> peso del término en la tarea)
+        private final NavigableMap<String, Map<Long, Integer>> indice = new TreeMap<>();
+        private final Map<Long, Documento> documentos = new HashMap<>();
+
+        void aplicar(TareaEvento evento) {
+            Documento anterior = quitar(evento.id());
+            if (evento.tipo() == TareaEvento.Tipo.ELIMINADA) {
+                return;
+            }
+            //En un PATCH el campo que no viene conserva sus términos anteriores
+            Map<String, Integer> titulo = evento.titulo() != null || anterior == null ? frecuencias(evento.titulo()) : anterior.titulo();
+            Map<String, Integer> descripcion = evento.descripcion() != null || anterior == null ? frecuencias(evento.descripcion()) : anterior.descripcion();
+            agregar(evento.id(), new Documento(titulo, descripcion));
+        }
+
+        void agregar(Long id, Documento documento) {
+            documentos.put(id, documento);
+            documento.titulo().forEach((termino, veces) -> indice.computeIfAbsent(termino, t -> new HashMap<>()).merge(id, veces * PESO_TITULO, Integer::sum));
+            documento.descripcion().forEach((termino, veces) -> indice.computeIfAbsent(termino, t -> new HashMap<>()).merge(id, veces * PESO_DESCRIPCION, Integer::sum));
+        }
+
+        private Documento quitar(Long id) {
+            Documento documento = documentos.remove(id);
+            if (documento != null) {
+                documento.titulo().keySet().forEach(termino -> quitarTermino(termino, id));
+                documento.descripcion().keySet().forEach(termino -> quitarTermino(termino, id));
+            }
+            return documento;
+        }
+
+        private void quitarTermino(String termino, Long id) {
+            Map<Long, Integer> tareas = indice.get(termino);
+            if (tareas != null) {
+                tareas.remove(id);
+                if (tareas.isEmpty()) {
+                    indice.remove(termino);
+                }
+            }
+        }
+    }
+
+    //Minúsculas, sin acentos (NFD y se quitan las marcas), separado en letras y números y sin palabras vacías
+    static Map<String, Integer> frecuencias(String texto) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        if (texto == null) {
+            return frecuencias;
+        }
+        String normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        for (String termino : SEPARADOR.split(normalizado)) {
+            if (!termino.isEmpty() && !PALABRAS_VACIAS.contains(termino)) {
+                frecuencias.merge(termino, 1, Integer::sum);
+            }
+        }
+        return frecuencias;
+    }
+
+}
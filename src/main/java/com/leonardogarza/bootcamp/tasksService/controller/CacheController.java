@@ -0,0 +1,35 @@
+package com.leonardogarza.bootcamp.tasksService.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.leonardogarza.bootcamp.tasksService.dto.EstadisticasCache;
+import com.leonardogarza.bootcamp.tasksService.metricas.RegionesCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final RegionesCache regionesCache;
+    public CacheController(RegionesCache regionesCache){
+        this.regionesCache = regionesCache;
+    }
+
+    //Hits, misses, evictions y tamaño de cada región, leídos de las estadísticas nativas de Caffeine
+    @GetMapping
+    public ResponseEntity<List<EstadisticasCache>> estadisticas(){
+        List<EstadisticasCache> estadisticas = new ArrayList<>();
+        regionesCache.regiones().forEach((region, cache) -> {
+            CacheStats stats = cache.stats();
+            estadisticas.add(new EstadisticasCache(region, stats.hitCount(), stats.missCount(),
+                    stats.evictionCount(), cache.estimatedSize()));
+        });
+        return ResponseEntity.ok(estadisticas);
+    }
+
+}
@@ -1,52 +1,218 @@
 package com.leonardogarza.bootcamp.tasksService.controller;
 
+import com.leonardogarza.bootcamp.tasksService.busqueda.IndiceTareas;
+import com.leonardogarza.bootcamp.tasksService.dto.CambiosTarea;
+import com.leonardogarza.bootcamp.tasksService.dto.EstadisticasTareas;
+import com.leonardogarza.bootcamp.tasksService.dto.FiltroTareas;
+import com.leonardogarza.bootcamp.tasksService.dto.ResultadoLote;
+import com.leonardogarza.bootcamp.tasksService.escritura.EscrituraDiferida;
+import com.leonardogarza.bootcamp.tasksService.estadisticas.ContadoresTareas;
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.exportacion.ExportadorTareas;
+import com.leonardogarza.bootcamp.tasksService.feed.FeedTareas;
+import com.leonardogarza.bootcamp.tasksService.idempotencia.AlmacenIdempotencia;
+import com.leonardogarza.bootcamp.tasksService.json.Campos;
+import com.leonardogarza.bootcamp.tasksService.importacion.ImportadorTareas;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
 import com.leonardogarza.bootcamp.tasksService.model.Tarea;
 import com.leonardogarza.bootcamp.tasksService.model.Usuario;
 import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
 import com.leonardogarza.bootcamp.tasksService.repository.UsuarioRepository;
 import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import com.leonardogarza.bootcamp.tasksService.util.Cursor;
+import com.leonardogarza.bootcamp.tasksService.util.Etag;
+import com.leonardogarza.bootcamp.tasksService.util.Paginacion;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/tareas")
 public class TareaController {
 
+    private static final String TAREA_MODIFICADA = "La tarea fue modificada por otra petición";
+
     private final TareaRepository tareaRepository;
     private final UsuarioRepository usuarioRepository;
-    public TareaController(TareaRepository tareaRepository, UsuarioRepository usuarioRepository){
+    private final ExportadorTareas exportadorTareas;
+    private final ImportadorTareas importadorTareas;
+    private final IndiceTareas indiceTareas;
+    private final ContadoresTareas contadoresTareas;
+    private final FeedTareas feedTareas;
+    private final AlmacenIdempotencia almacenIdempotencia;
+    private final EscrituraDiferida escrituraDiferida;
+    private final ApplicationEventPublisher eventos;
+    public TareaController(TareaRepository tareaRepository, UsuarioRepository usuarioRepository,
+                           ExportadorTareas exportadorTareas, ImportadorTareas importadorTareas,
+                           IndiceTareas indiceTareas, ContadoresTareas contadoresTareas, FeedTareas feedTareas,
+                           AlmacenIdempotencia almacenIdempotencia, EscrituraDiferida escrituraDiferida,
+                           ApplicationEventPublisher eventos){
         this.tareaRepository = tareaRepository;
         this.usuarioRepository = usuarioRepository;
+        this.exportadorTareas = exportadorTareas;
+        this.importadorTareas = importadorTareas;
+        this.indiceTareas = indiceTareas;
+        this.contadoresTareas = contadoresTareas;
+        this.feedTareas = feedTareas;
+        this.almacenIdempotencia = almacenIdempotencia;
+        this.escrituraDiferida = escrituraDiferida;
+        this.eventos = eventos;
     }
 
+    //Listado paginado por llave sobre el id, el cursor de la siguiente página se regresa en el header X-Next-Cursor.
+    //Filtros opcionales por estado, usuario y rango de fecha límite (exclusivo).
     @GetMapping
-    public ResponseEntity<List<Tarea>> listAll(){
-        return ResponseEntity.ok(tareaRepository.findAll());
+    public ResponseEntity<?> listAll(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false) String estado, @RequestParam(required = false) Long usuario,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate venceAntes,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate venceDespues,
+                                     @RequestParam(required = false) String fields){
+        EstadoTarea estadoTarea = EstadoTarea.deEtiqueta(estado);
+        if (estado != null && estadoTarea == null) {
+            return ResponseEntity.badRequest().body("Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
+        }
+        try {
+            int tamano = Paginacion.tamano(size);
+            FiltroTareas filtro = new FiltroTareas(estadoTarea, usuario, venceAntes, venceDespues);
+            List<Tarea> tareas = filtro.vacio()
+                    ? tareaRepository.findByIdGreaterThanOrderByIdAsc(Cursor.decodificar(cursor), Paginacion.limite(tamano))
+                    : tareaRepository.filtrar(filtro, Cursor.decodificar(cursor), Paginacion.limite(tamano));
+            return Campos.aplicar(Paginacion.respuesta(tareas, tamano, Tarea::getId), fields);
+        } catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    //Exportación completa en NDJSON, escrita en streaming y comprimida con gzip si el cliente lo acepta
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                //syncFlush para que cada flush del exportador llegue al cliente y no se quede en el deflater
+                try (GZIPOutputStream comprimida = new GZIPOutputStream(salida, 8192, true)) {
+                    exportadorTareas.exportar(comprimida);
+                }
+            } else {
+                exportadorTareas.exportar(salida);
+            }
+        };
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson"));
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    //Búsqueda por palabras en titulo y descripcion, sin acentos y por prefijo, ordenada por relevancia
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q, @RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size,
+                                    @RequestParam(required = false) String fields){
+        try {
+            int tamano = Paginacion.tamano(size);
+            int pagina = page == null ? 0 : page;
+            if (pagina < 0) {
+                return ResponseEntity.badRequest().body("La página debe ser mayor o igual a 0");
+            }
+            IndiceTareas.Resultado resultado = indiceTareas.buscar(q, pagina * tamano, tamano);
+            Map<Long, Tarea> porId = new HashMap<>();
+            tareaRepository.findByIdIn(resultado.ids()).forEach(tarea -> porId.put(tarea.getId(), tarea));
+            List<Tarea> tareas = new ArrayList<>(resultado.ids().size());
+            for (Long id : resultado.ids()) {
+                if (porId.containsKey(id)) {
+                    tareas.add(porId.get(id));
+                }
+            }
+            return Campos.aplicar(ResponseEntity.ok().header(Constantes.HEADER_TOTAL, String.valueOf(resultado.total())).body(tareas), fields);
+        } catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
+    //Cambios de tareas en vivo (Server-Sent Events), filtrados opcionalmente por usuario y estado.
+    //Al reconectarse el navegador manda Last-Event-ID (o el cliente usa ?desde=) y solo recibe lo que se perdió.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    //El tipo del cuerpo debe ser SseEmitter para que Spring lo trate como stream, por eso el 400 va sin mensaje.
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) Long usuario, @RequestParam(required = false) String estado,
+                                             @RequestParam(required = false) Long desde,
+                                             @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento){
+        EstadoTarea estadoTarea = EstadoTarea.deEtiqueta(estado);
+        if (estado != null && estadoTarea == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(feedTareas.suscribir(usuario, estadoTarea, ultimoEvento != null ? ultimoEvento : desde));
+    }
+
+    //Conteos por estado y por usuario servidos desde memoria, ver ContadoresTareas
+    @GetMapping("/stats")
+    public ResponseEntity<EstadisticasTareas> stats(@RequestParam(required = false) Long usuario){
+        if (usuario == null) {
+            return ResponseEntity.ok(contadoresTareas.estadisticas());
+        }
+        EstadisticasTareas estadisticas = contadoresTareas.estadisticas(usuario);
+        //Solo se consulta la base de datos cuando el usuario no tiene tareas
+        if (estadisticas.total() == 0 && !usuarioRepository.existsById(usuario)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(estadisticas);
+    }
+
+    //Regresa 304 sin cuerpo si el ETag de If-None-Match sigue vigente
     @GetMapping("/{id}")
-    public ResponseEntity<Tarea> findById(@PathVariable Long id){
+    public ResponseEntity<?> findById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                      @RequestParam(required = false) String fields){
         Optional<Tarea> tarea = tareaRepository.findById(id);
-        return tarea.isPresent() ? ResponseEntity.ok(tarea.get()) : ResponseEntity.notFound().build();
+        if (tarea.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        EstadoTarea pendiente = escrituraDiferida.pendiente(id);
+        if (pendiente != null) {
+            //El cliente ve el estado que escribió aunque todavía no se guarde; se responde una copia para no tocar
+            //la entidad de la sesión. Va sin ETag porque la versión cambia hasta que se guarde.
+            return Campos.aplicar(ResponseEntity.ok().body(tarea.get().conEstado(pendiente)), fields);
+        }
+        String etag = etag(tarea.get());
+        if (Etag.coincideDebil(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return Campos.aplicar(ResponseEntity.ok().eTag(etag).body(tarea.get()), fields);
     }
 
+    //Con Idempotency-Key los reintentos reciben la respuesta original sin volver a crear la tarea
     @PostMapping
-    public ResponseEntity<?> createTarea(@RequestBody Tarea newTarea, UriComponentsBuilder ucb){
+    public ResponseEntity<?> createTarea(@RequestBody Tarea newTarea, UriComponentsBuilder ucb,
+                                         @RequestHeader(value = AlmacenIdempotencia.HEADER, required = false) String llave){
+        return almacenIdempotencia.ejecutar(llave, "POST /tareas", newTarea, () -> crearTarea(newTarea, ucb));
+    }
+
+    private ResponseEntity<?> crearTarea(Tarea newTarea, UriComponentsBuilder ucb){
         try {
-            if (!Constantes.ESTADOS_VALIDOS.contains(newTarea.getEstado())) {
+            if (newTarea.getEstadoTarea() == null) {
                 return ResponseEntity.badRequest().body("Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
             }
             Optional<Usuario> usuario = usuarioRepository.findById(newTarea.getUsuarioAsignado().getId());
             if (usuario.isEmpty()){
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
             }
+            newTarea.setUsuarioAsignado(usuario.get());
             Tarea tareaSaved = tareaRepository.save(newTarea);
+            eventos.publishEvent(TareaEvento.creada(tareaSaved));
             URI uriTarea = ucb.path("tareas/{id}").buildAndExpand(tareaSaved.getId()).toUri();
             return ResponseEntity.created(uriTarea).build();
         } catch(Exception e){
@@ -54,39 +220,231 @@ public class TareaController {
         }
     }
 
+    //Alta por lote: valida estados y usuarios en una sola pasada y guarda las tareas válidas con inserts en batch
+    @PostMapping("/batch")
+    public ResponseEntity<?> createTareas(@RequestBody List<Tarea> newTareas){
+        if (newTareas.size() > Constantes.LOTE_TAMANO_MAXIMO) {
+            return ResponseEntity.badRequest().body("El lote excede el máximo de " + Constantes.LOTE_TAMANO_MAXIMO + " elementos");
+        }
+        try {
+            Set<Long> idsUsuarios = new HashSet<>();
+            for (Tarea tarea : newTareas) {
+                if (tarea.getUsuarioAsignado() != null && tarea.getUsuarioAsignado().getId() != null) {
+                    idsUsuarios.add(tarea.getUsuarioAsignado().getId());
+                }
+            }
+            Map<Long, Usuario> usuarios = new HashMap<>();
+            usuarioRepository.findAllById(idsUsuarios).forEach(usuario -> usuarios.put(usuario.getId(), usuario));
+
+            ResultadoLote[] resultados = new ResultadoLote[newTareas.size()];
+            List<Tarea> validas = new ArrayList<>(newTareas.size());
+            List<Integer> indicesValidas = new ArrayList<>(newTareas.size());
+            for (int i = 0; i < newTareas.size(); i++) {
+                Tarea tarea = newTareas.get(i);
+                Usuario usuario = tarea.getUsuarioAsignado() == null ? null : usuarios.get(tarea.getUsuarioAsignado().getId());
+                if (tarea.getEstadoTarea() == null) {
+                    resultados[i] = ResultadoLote.rechazado(i, HttpStatus.BAD_REQUEST.value(), "Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
+                } else if (usuario == null) {
+                    resultados[i] = ResultadoLote.rechazado(i, HttpStatus.NOT_FOUND.value(), "Usuario no encontrado");
+                } else {
+                    tarea.setId(null);
+                    tarea.setUsuarioAsignado(usuario);
+                    validas.add(tarea);
+                    indicesValidas.add(i);
+                }
+            }
+
+            List<Tarea> guardadas = tareaRepository.saveAll(validas);
+            for (int i = 0; i < guardadas.size(); i++) {
+                resultados[indicesValidas.get(i)] = ResultadoLote.creado(indicesValidas.get(i), guardadas.get(i).getId());
+                eventos.publishEvent(TareaEvento.creada(guardadas.get(i)));
+            }
+            return ResponseEntity.ok(Arrays.asList(resultados));
+        } catch(Exception e){
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    //Actualización por lote: lee las tareas y sus usuarios con una consulta cada uno, y los UPDATE salen en batches JDBC
+    //al confirmar. Si otra petición guardó alguna de las tareas mientras tanto no se guarda ninguna y regresa 412.
+    @PutMapping("/batch")
+    public ResponseEntity<?> updateTareas(@RequestBody List<Tarea> updatedTareas){
+        if (updatedTareas.size() > Constantes.LOTE_TAMANO_MAXIMO) {
+            return ResponseEntity.badRequest().body("El lote excede el máximo de " + Constantes.LOTE_TAMANO_MAXIMO + " elementos");
+        }
+        try {
+            Set<Long> idsTareas = new HashSet<>();
+            Set<Long> idsUsuarios = new HashSet<>();
+            for (Tarea tarea : updatedTareas) {
+                if (tarea.getId() != null) {
+                    idsTareas.add(tarea.getId());
+                    escrituraDiferida.aplicarPendiente(tarea.getId());
+                }
+                if (tarea.getUsuarioAsignado() != null && tarea.getUsuarioAsignado().getId() != null) {
+                    idsUsuarios.add(tarea.getUsuarioAsignado().getId());
+                }
+            }
+            Map<Long, Tarea> tareas = new HashMap<>();
+            tareaRepository.findAllById(idsTareas).forEach(tarea -> tareas.put(tarea.getId(), tarea));
+            Map<Long, Usuario> usuarios = new HashMap<>();
+            usuarioRepository.findAllById(idsUsuarios).forEach(usuario -> usuarios.put(usuario.getId(), usuario));
+
+            ResultadoLote[] resultados = new ResultadoLote[updatedTareas.size()];
+            Map<Long, Tarea> validas = new LinkedHashMap<>();
+            //Estado y usuario de cada tarea antes de aplicarle los cambios del lote
+            Map<Long, TareaRepository.EstadoAnterior> anteriores = new HashMap<>();
+            for (int i = 0; i < updatedTareas.size(); i++) {
+                Tarea cambios = updatedTareas.get(i);
+                Tarea tarea = cambios.getId() == null ? null : tareas.get(cambios.getId());
+                Usuario usuario = cambios.getUsuarioAsignado() == null ? null : usuarios.get(cambios.getUsuarioAsignado().getId());
+                if (cambios.getEstadoTarea() == null) {
+                    resultados[i] = ResultadoLote.rechazado(i, HttpStatus.BAD_REQUEST.value(), "Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
+                } else if (tarea == null) {
+                    resultados[i] = ResultadoLote.rechazado(i, HttpStatus.NOT_FOUND.value(), "Tarea no encontrada");
+                } else if (usuario == null) {
+                    resultados[i] = ResultadoLote.rechazado(i, HttpStatus.NOT_FOUND.value(), "Usuario no encontrado");
+                } else {
+                    anteriores.putIfAbsent(tarea.getId(), new TareaRepository.EstadoAnterior(tarea.getEstadoTarea(), tarea.idUsuarioAsignado()));
+                    tarea.setTitulo(cambios.getTitulo());
+                    tarea.setDescripcion(cambios.getDescripcion());
+                    tarea.setEstadoTarea(cambios.getEstadoTarea());
+                    tarea.setFechaLimite(cambios.getFechaLimite());
+                    tarea.setUsuarioAsignado(usuario);
+                    validas.put(tarea.getId(), tarea);
+                    resultados[i] = ResultadoLote.actualizado(i, tarea.getId());
+                }
+            }
+
+            tareaRepository.saveAll(validas.values());
+            validas.values().forEach(tarea -> {
+                TareaRepository.EstadoAnterior anterior = anteriores.get(tarea.getId());
+                eventos.publishEvent(TareaEvento.actualizada(tarea, anterior.estado(), anterior.usuarioId()));
+            });
+            return ResponseEntity.ok(Arrays.asList(resultados));
+        } catch(ObjectOptimisticLockingFailureException e){
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(TAREA_MODIFICADA);
+        } catch(Exception e){
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    //Importación masiva desde el cuerpo de la petición en CSV o NDJSON, leída en streaming y guardada por chunks
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importTareas(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream entrada){
+        ImportadorTareas.Formato formato = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ImportadorTareas.Formato.CSV : ImportadorTareas.Formato.NDJSON;
+        try {
+            return ResponseEntity.ok(importadorTareas.importar(entrada, formato));
+        } catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch(IOException e){
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    //Con If-Match solo se actualiza si el ETag coincide con la versión actual, si no regresa 412
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateTarea(@RequestBody Tarea updatedTarea, @PathVariable Long id){
+    public ResponseEntity<?> updateTarea(@RequestBody Tarea updatedTarea, @PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         try {
-            if (!Constantes.ESTADOS_VALIDOS.contains(updatedTarea.getEstado())) {
+            if (updatedTarea.getEstadoTarea() == null) {
                 return ResponseEntity.badRequest().body("Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
             }
             Optional<Usuario> usuario = usuarioRepository.findById(updatedTarea.getUsuarioAsignado().getId());
             if (usuario.isEmpty()){
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
             }
+            escrituraDiferida.aplicarPendiente(id);
             return tareaRepository.findById(id)
                     .map(tarea -> {
+                        if (ifMatch != null && !Etag.coincideFuerte(ifMatch, etag(tarea))) {
+                            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(TAREA_MODIFICADA);
+                        }
+                        EstadoTarea estadoAnterior = tarea.getEstadoTarea();
+                        Long usuarioIdAnterior = tarea.idUsuarioAsignado();
                         tarea.setTitulo(updatedTarea.getTitulo());
                         tarea.setDescripcion(updatedTarea.getDescripcion());
-                        tarea.setEstado(updatedTarea.getEstado());
+                        tarea.setEstadoTarea(updatedTarea.getEstadoTarea());
                         tarea.setFechaLimite(updatedTarea.getFechaLimite());
-                        tarea.setUsuarioAsignado(updatedTarea.getUsuarioAsignado());
+                        tarea.setUsuarioAsignado(usuario.get());
                         tareaRepository.save(tarea);
-                        return ResponseEntity.ok().build();
+                        eventos.publishEvent(TareaEvento.actualizada(tarea, estadoAnterior, usuarioIdAnterior));
+                        return ResponseEntity.ok().eTag(etag(tarea)).build();
                     }).orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        } catch(ObjectOptimisticLockingFailureException e){
+            //Otra petición guardó la tarea entre la lectura y el UPDATE
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(TAREA_MODIFICADA);
         } catch(Exception e){
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    //Actualización parcial en un solo UPDATE que toca solo los campos presentes, sin leer antes la tarea ni el usuario.
+    //Con If-Match el UPDATE se condiciona a las versiones del ETag y si no coinciden regresa 412.
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchTarea(@RequestBody CambiosTarea cambios, @PathVariable Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if (cambios.vacio()) {
+            return ResponseEntity.badRequest().body("No hay campos para actualizar");
+        }
+        EstadoTarea estado = EstadoTarea.deEtiqueta(cambios.estado());
+        if (cambios.estado() != null && estado == null) {
+            return ResponseEntity.badRequest().body("Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
+        }
+        //Con la escritura diferida un cambio solo de estado sin If-Match se acepta con 202 y se guarda después en lote;
+        //se rechaza con 503 si hay demasiados pendientes
+        if (escrituraDiferida.habilitada() && ifMatch == null && cambios.soloEstado()) {
+            //findById sale del cache de segundo nivel cuando la tarea ya está ahí
+            if (tareaRepository.findById(id).isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return escrituraDiferida.aceptar(id, estado)
+                    ? ResponseEntity.accepted().build()
+                    : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                            .body("Hay demasiados cambios de estado pendientes, intente más tarde");
+        }
+        escrituraDiferida.aplicarPendiente(id);
+        long[] versiones = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            versiones = Etag.versiones(ifMatch);
+            if (versiones == null || versiones.length != 2) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(TAREA_MODIFICADA);
+            }
+        }
+        try {
+            TareaRepository.EstadoAnterior anterior = tareaRepository.actualizarParcial(id, cambios, estado,
+                    versiones == null ? null : versiones[0], versiones == null ? null : versiones[1]);
+            if (anterior == null) {
+                //Solo en el caso de fallo se consulta si la tarea existe para distinguir 412 de 404
+                return versiones != null && tareaRepository.existsById(id)
+                        ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(TAREA_MODIFICADA)
+                        : ResponseEntity.notFound().build();
+            }
+            eventos.publishEvent(TareaEvento.actualizada(id, cambios, estado, anterior.estado(), anterior.usuarioId()));
+            //El nuevo ETag solo se conoce si se mandó el anterior y el usuario asignado no cambió
+            return versiones != null && cambios.usuarioId() == null
+                    ? ResponseEntity.noContent().eTag(Etag.de(versiones[0] + 1, versiones[1])).build()
+                    : ResponseEntity.noContent().build();
+        } catch(DataIntegrityViolationException e){
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Tarea> deleteTarea(@PathVariable Long id){
-        if (tareaRepository.existsById(id)) {
-            tareaRepository.deleteById(id);
-            return ResponseEntity.noContent().build();
-        } else {
+        escrituraDiferida.descartar(id);
+        TareaRepository.EstadoAnterior anterior = tareaRepository.eliminar(id);
+        if (anterior == null) {
             return ResponseEntity.notFound().build();
         }
+        eventos.publishEvent(TareaEvento.eliminada(id, anterior.estado(), anterior.usuarioId()));
+        return ResponseEntity.noContent().build();
+    }
+
+    //El ETag cambia si cambia la tarea o el usuario asignado, ambos forman parte de la respuesta
+    private static String etag(Tarea tarea) {
+        Usuario usuario = tarea.getUsuarioAsignado();
+        return Etag.de(tarea.getVersion(), usuario == null ? null : usuario.getVersion());
     }
 
 }
@@ -1,41 +1,126 @@
 package com.leonardogarza.bootcamp.tasksService.controller;
 
+import com.leonardogarza.bootcamp.tasksService.dto.CambiosUsuario;
+import com.leonardogarza.bootcamp.tasksService.dto.ConteoTareas;
+import com.leonardogarza.bootcamp.tasksService.dto.ResultadoLote;
+import com.leonardogarza.bootcamp.tasksService.idempotencia.AlmacenIdempotencia;
+import com.leonardogarza.bootcamp.tasksService.json.Campos;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
 import com.leonardogarza.bootcamp.tasksService.model.Usuario;
 import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
 import com.leonardogarza.bootcamp.tasksService.repository.UsuarioRepository;
+import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import com.leonardogarza.bootcamp.tasksService.util.Cursor;
+import com.leonardogarza.bootcamp.tasksService.util.Etag;
+import com.leonardogarza.bootcamp.tasksService.util.Paginacion;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/usuarios")
 public class UsuarioController {
 
+    private static final String USUARIO_MODIFICADO = "El usuario fue modificado por otra petición";
+
     private final UsuarioRepository usuarioRepository;
     private final TareaRepository tareaRepository;
-    public UsuarioController(UsuarioRepository usuarioRepository, TareaRepository tareaRepository){
+    private final AlmacenIdempotencia almacenIdempotencia;
+    public UsuarioController(UsuarioRepository usuarioRepository, TareaRepository tareaRepository,
+                             AlmacenIdempotencia almacenIdempotencia){
         this.usuarioRepository = usuarioRepository;
         this.tareaRepository = tareaRepository;
+        this.almacenIdempotencia = almacenIdempotencia;
     }
 
+    //Listado paginado por llave sobre el id, el cursor de la siguiente página se regresa en el header X-Next-Cursor
     @GetMapping
-    public ResponseEntity<List<Usuario>> listAll(){
-        return ResponseEntity.ok(usuarioRepository.findAll());
+    public ResponseEntity<?> listAll(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false) String fields){
+        try {
+            int tamano = Paginacion.tamano(size);
+            List<Usuario> usuarios = usuarioRepository.findByIdGreaterThanOrderByIdAsc(Cursor.decodificar(cursor), Paginacion.limite(tamano));
+            return Campos.aplicar(Paginacion.respuesta(usuarios, tamano, Usuario::getId), fields);
+        } catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
+    //Regresa 304 sin cuerpo si el ETag de If-None-Match sigue vigente
     @GetMapping("/{id}")
-    public ResponseEntity<Usuario> findById(@PathVariable Long id){
+    public ResponseEntity<?> findById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                      @RequestParam(required = false) String fields){
         Optional<Usuario> usuario = usuarioRepository.findById(id);
-        return usuario.isPresent() ? ResponseEntity.ok(usuario.get()) : ResponseEntity.notFound().build();
+        if (usuario.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = Etag.de(usuario.get().getVersion());
+        if (Etag.coincideDebil(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return Campos.aplicar(ResponseEntity.ok().eTag(etag).body(usuario.get()), fields);
     }
 
+    //Tareas del usuario paginadas por llave, opcionalmente filtradas por estado
+    @GetMapping("/{id}/tareas")
+    public ResponseEntity<?> listTareas(@PathVariable Long id, @RequestParam(required = false) String estado,
+                                        @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+                                        @RequestParam(required = false) String fields){
+        EstadoTarea estadoTarea = EstadoTarea.deEtiqueta(estado);
+        if (estado != null && estadoTarea == null) {
+            return ResponseEntity.badRequest().body("Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
+        }
+        if (usuarioRepository.findById(id).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
+        }
+        try {
+            int tamano = Paginacion.tamano(size);
+            long despuesDe = Cursor.decodificar(cursor);
+            List<Tarea> tareas = estadoTarea == null
+                    ? tareaRepository.findByUsuario(id, despuesDe, Paginacion.limite(tamano))
+                    : tareaRepository.findByUsuarioAndEstado(id, estadoTarea, despuesDe, Paginacion.limite(tamano));
+            return Campos.aplicar(Paginacion.respuesta(tareas, tamano, Tarea::getId), fields);
+        } catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/tareas/count")
+    public ResponseEntity<?> countTareas(@PathVariable Long id, @RequestParam(required = false) String estado){
+        EstadoTarea estadoTarea = EstadoTarea.deEtiqueta(estado);
+        if (estado != null && estadoTarea == null) {
+            return ResponseEntity.badRequest().body("Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
+        }
+        if (usuarioRepository.findById(id).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
+        }
+        long total = estadoTarea == null
+                ? tareaRepository.countByUsuarioAsignadoId(id)
+                : tareaRepository.countByUsuarioAsignadoIdAndEstado(id, estadoTarea);
+        return ResponseEntity.ok(new ConteoTareas(id, estado, total));
+    }
+
+    //Con Idempotency-Key los reintentos reciben la respuesta original sin volver a crear el usuario
     @PostMapping
-    public ResponseEntity<Usuario> createUsuario(@RequestBody Usuario newUsuario, UriComponentsBuilder ucb){
+    public ResponseEntity<?> createUsuario(@RequestBody Usuario newUsuario, UriComponentsBuilder ucb,
+                                           @RequestHeader(value = AlmacenIdempotencia.HEADER, required = false) String llave){
+        return almacenIdempotencia.ejecutar(llave, "POST /usuarios", newUsuario, () -> crearUsuario(newUsuario, ucb));
+    }
+
+    private ResponseEntity<?> crearUsuario(Usuario newUsuario, UriComponentsBuilder ucb){
         try {
             Usuario usuarioSaved = usuarioRepository.save(newUsuario);
             URI uriUsuario = ucb.path("usuarios/{id}").buildAndExpand(usuarioSaved.getId()).toUri();
@@ -45,21 +130,110 @@ public class UsuarioController {
         }
     }
 
+    //Alta por lote con inserts en batch, regresa el resultado de cada elemento en el mismo orden
+    @PostMapping("/batch")
+    public ResponseEntity<?> createUsuarios(@RequestBody List<Usuario> newUsuarios){
+        if (newUsuarios.size() > Constantes.LOTE_TAMANO_MAXIMO) {
+            return ResponseEntity.badRequest().body("El lote excede el máximo de " + Constantes.LOTE_TAMANO_MAXIMO + " elementos");
+        }
+        try {
+            newUsuarios.forEach(usuario -> usuario.setId(null));
+            List<Usuario> guardados = usuarioRepository.saveAll(newUsuarios);
+            List<ResultadoLote> resultados = new ArrayList<>(guardados.size());
+            for (int i = 0; i < guardados.size(); i++) {
+                resultados.add(ResultadoLote.creado(i, guardados.get(i).getId()));
+            }
+            return ResponseEntity.ok(resultados);
+        } catch(Exception e){
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    //Actualización por lote: lee los usuarios con una sola consulta y los UPDATE salen en batches JDBC al confirmar.
+    //Si otra petición guardó alguno de los usuarios mientras tanto no se guarda ninguno y regresa 412.
+    @PutMapping("/batch")
+    public ResponseEntity<?> updateUsuarios(@RequestBody List<Usuario> updatedUsuarios){
+        if (updatedUsuarios.size() > Constantes.LOTE_TAMANO_MAXIMO) {
+            return ResponseEntity.badRequest().body("El lote excede el máximo de " + Constantes.LOTE_TAMANO_MAXIMO + " elementos");
+        }
+        try {
+            Set<Long> ids = new HashSet<>();
+            updatedUsuarios.forEach(usuario -> {
+                if (usuario.getId() != null) {
+                    ids.add(usuario.getId());
+                }
+            });
+            Map<Long, Usuario> usuarios = new HashMap<>();
+            usuarioRepository.findAllById(ids).forEach(usuario -> usuarios.put(usuario.getId(), usuario));
+
+            List<ResultadoLote> resultados = new ArrayList<>(updatedUsuarios.size());
+            for (int i = 0; i < updatedUsuarios.size(); i++) {
+                Usuario cambios = updatedUsuarios.get(i);
+                Usuario usuario = cambios.getId() == null ? null : usuarios.get(cambios.getId());
+                if (usuario == null) {
+                    resultados.add(ResultadoLote.rechazado(i, HttpStatus.NOT_FOUND.value(), "Usuario no encontrado"));
+                } else {
+                    usuario.setNombre(cambios.getNombre());
+                    usuario.setEmail(cambios.getEmail());
+                    resultados.add(ResultadoLote.actualizado(i, usuario.getId()));
+                }
+            }
+            usuarioRepository.saveAll(usuarios.values());
+            return ResponseEntity.ok(resultados);
+        } catch(ObjectOptimisticLockingFailureException e){
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(USUARIO_MODIFICADO);
+        } catch(Exception e){
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUsuario(@RequestBody Usuario updatedUsuario, @PathVariable Long id){
+    public ResponseEntity<?> updateUsuario(@RequestBody Usuario updatedUsuario, @PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         try {
             return usuarioRepository.findById(id)
                     .map(usuario -> {
+                        if (ifMatch != null && !Etag.coincideFuerte(ifMatch, Etag.de(usuario.getVersion()))) {
+                            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(USUARIO_MODIFICADO);
+                        }
                         usuario.setNombre(updatedUsuario.getNombre());
                         usuario.setEmail(updatedUsuario.getEmail());
                         usuarioRepository.save(usuario);
-                        return ResponseEntity.ok(updatedUsuario);
+                        return ResponseEntity.ok().eTag(Etag.de(usuario.getVersion())).body(updatedUsuario);
                     }).orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        } catch(ObjectOptimisticLockingFailureException e){
+            //Otra petición guardó el usuario entre la lectura y el UPDATE
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(USUARIO_MODIFICADO);
         } catch(Exception e){
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    //Actualización parcial en un solo UPDATE que toca solo los campos presentes, condicionado a la versión con If-Match
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchUsuario(@RequestBody CambiosUsuario cambios, @PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if (cambios.vacio()) {
+            return ResponseEntity.badRequest().body("No hay campos para actualizar");
+        }
+        long[] versiones = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            versiones = Etag.versiones(ifMatch);
+            if (versiones == null || versiones.length != 1) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(USUARIO_MODIFICADO);
+            }
+        }
+        int filas = usuarioRepository.actualizarParcial(id, cambios, versiones == null ? null : versiones[0]);
+        if (filas == 0) {
+            return versiones != null && usuarioRepository.existsById(id)
+                    ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(USUARIO_MODIFICADO)
+                    : ResponseEntity.notFound().build();
+        }
+        return versiones != null
+                ? ResponseEntity.noContent().eTag(Etag.de(versiones[0] + 1)).build()
+                : ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUsuario(@PathVariable Long id){
         if (usuarioRepository.existsById(id)) {
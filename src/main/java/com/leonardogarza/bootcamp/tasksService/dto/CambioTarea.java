@@ -0,0 +1,22 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+//Cambio de una tarea enviado por GET /tareas/stream, evento es la posición en el feed (id del evento SSE).
+//titulo y descripcion solo vienen si cambiaron; usuarioId y estado son los de la tarea después del cambio.
+public record CambioTarea(long evento, String tipo, Long id, String titulo, String descripcion, String estado, Long usuarioId) {
+
+    public static final String CREADA = "creada";
+    public static final String ACTUALIZADA = "actualizada";
+    public static final String VENCIDA = "vencida";
+    public static final String ELIMINADA = "eliminada";
+
+    //Junta dos cambios seguidos de la misma tarea en uno solo: los campos del siguiente ganan si vienen.
+    //Una tarea creada y luego actualizada se sigue enviando como creada; una eliminada se envía como eliminada.
+    public CambioTarea combinar(CambioTarea siguiente) {
+        String tipoCombinado = CREADA.equals(tipo) && !ELIMINADA.equals(siguiente.tipo) ? CREADA : siguiente.tipo;
+        return new CambioTarea(siguiente.evento, tipoCombinado, id,
+                siguiente.titulo != null ? siguiente.titulo : titulo,
+                siguiente.descripcion != null ? siguiente.descripcion : descripcion,
+                siguiente.estado, siguiente.usuarioId);
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+
+import java.time.LocalDate;
+
+//Cuerpo de PATCH /tareas/{id}: solo se actualizan los campos presentes (no nulos).
+public record CambiosTarea(String titulo, String descripcion, String estado, LocalDate fechaLimite, Usuario usuarioAsignado) {
+
+    public Long usuarioId() {
+        return usuarioAsignado == null ? null : usuarioAsignado.getId();
+    }
+
+    public boolean soloEstado() {
+        return estado != null && titulo == null && descripcion == null && fechaLimite == null && usuarioId() == null;
+    }
+
+    public boolean vacio() {
+        return titulo == null && descripcion == null && estado == null && fechaLimite == null && usuarioId() == null;
+    }
+
+}
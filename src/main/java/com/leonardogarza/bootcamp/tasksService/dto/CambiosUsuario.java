@@ -0,0 +1,10 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+//Cuerpo de PATCH /usuarios/{id}: solo se actualizan los campos presentes (no nulos).
+public record CambiosUsuario(String nombre, String email) {
+
+    public boolean vacio() {
+        return nombre == null && email == null;
+    }
+
+}
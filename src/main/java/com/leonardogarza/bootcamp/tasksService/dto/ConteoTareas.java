@@ -0,0 +1,5 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+//Número de tareas de un usuario, estado es null cuando no se filtró por estado.
+public record ConteoTareas(Long usuarioId, String estado, long total) {
+}
@@ -0,0 +1,5 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+//Contadores de una región del cache de segundo nivel.
+public record EstadisticasCache(String region, long hits, long misses, long evictions, long tamano) {
+}
@@ -0,0 +1,11 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+//Número de tareas por estado (por etiqueta) y por usuario.
+//usuarioId solo viene cuando se pidieron las de un usuario, porUsuario solo en las globales.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EstadisticasTareas(Long usuarioId, long total, Map<String, Long> porEstado, Map<Long, Long> porUsuario) {
+}
@@ -0,0 +1,5 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+//Fila de una importación que no se guardó, linea cuenta desde 1 incluyendo el encabezado del CSV.
+public record FilaRechazada(long linea, String error) {
+}
@@ -0,0 +1,14 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+
+import java.time.LocalDate;
+
+//Filtros opcionales del listado de tareas, los nulos no filtran. Las fechas son exclusivas.
+public record FiltroTareas(EstadoTarea estado, Long usuarioId, LocalDate venceAntes, LocalDate venceDespues) {
+
+    public boolean vacio() {
+        return estado == null && usuarioId == null && venceAntes == null && venceDespues == null;
+    }
+
+}
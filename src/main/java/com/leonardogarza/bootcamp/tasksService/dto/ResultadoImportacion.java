@@ -0,0 +1,7 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+import java.util.List;
+
+//Resumen de una importación. Solo se reportan las primeras filas rechazadas, rechazosOmitidos cuenta el resto.
+public record ResultadoImportacion(long procesadas, long importadas, long chunks, List<FilaRechazada> rechazadas, long rechazosOmitidos) {
+}
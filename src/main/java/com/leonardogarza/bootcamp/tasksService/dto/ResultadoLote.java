@@ -0,0 +1,18 @@
+package com.leonardogarza.bootcamp.tasksService.dto;
+
+//Resultado de cada elemento de una carga por lote, en el mismo orden en que se recibieron.
+public record ResultadoLote(int indice, int status, Long id, String error) {
+
+    public static ResultadoLote creado(int indice, Long id) {
+        return new ResultadoLote(indice, 201, id, null);
+    }
+
+    public static ResultadoLote actualizado(int indice, Long id) {
+        return new ResultadoLote(indice, 200, id, null);
+    }
+
+    public static ResultadoLote rechazado(int indice, int status, String error) {
+        return new ResultadoLote(indice, status, null, error);
+    }
+
+}
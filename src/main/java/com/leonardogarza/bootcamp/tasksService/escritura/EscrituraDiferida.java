@@ -0,0 +1,175 @@
+package com.leonardogarza.bootcamp.tasksService.escritura;
+
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Cambios de estado aceptados con 202 y guardados después en lotes (PATCH solo con estado, tareas.escritura-diferida.habilitada).
+@Component
+public class EscrituraDiferida {
+
+    private static final Logger log = LoggerFactory.getLogger(EscrituraDiferida.class);
+
+    private final TareaRepository tareaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventos;
+    private final boolean habilitada;
+    private final int maxPendientes;
+    private final int tamanoLote;
+
+    //Último estado aceptado por tarea, sirve también para que findById regrese lo que el cliente escribió
+    private final ConcurrentHashMap<Long, EstadoTarea> pendientes = new ConcurrentHashMap<>();
+    //Un solo vaciado a la vez: el programado, el de una escritura síncrona y el del apagado
+    private final Object candado = new Object();
+    private volatile boolean cerrada;
+
+    private final Counter aplicados;
+    private final Counter rechazados;
+
+    public EscrituraDiferida(TareaRepository tareaRepository, TransactionTemplate transactionTemplate, ApplicationEventPublisher eventos,
+                             @Value("${tareas.escritura-diferida.habilitada:false}") boolean habilitada,
+                             @Value("${tareas.escritura-diferida.max-pendientes:10000}") int maxPendientes,
+                             @Value("${tareas.escritura-diferida.tamano-lote:500}") int tamanoLote,
+                             MeterRegistry meterRegistry){
+        this.tareaRepository = tareaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventos = eventos;
+        this.habilitada = habilitada;
+        this.maxPendientes = maxPendientes;
+        this.tamanoLote = tamanoLote;
+        this.aplicados = meterRegistry.counter("tareas.escritura_diferida.aplicados");
+        this.rechazados = meterRegistry.counter("tareas.escritura_diferida.rechazados");
+        Gauge.builder("tareas.escritura_diferida.pendientes", pendientes, Map::size).register(meterRegistry);
+    }
+
+    public boolean habilitada() {
+        return habilitada;
+    }
+
+    //Regresa false si no hay lugar (o la aplicación se está apagando); un cambio a una tarea ya pendiente siempre se junta
+    public boolean aceptar(Long id, EstadoTarea estado) {
+        if (cerrada || pendientes.size() >= maxPendientes && !pendientes.containsKey(id)) {
+            rechazados.increment();
+            return false;
+        }
+        pendientes.put(id, estado);
+        return true;
+    }
+
+    //Estado aceptado que todavía no se guarda, null si no hay
+    public EstadoTarea pendiente(Long id) {
+        return pendientes.get(id);
+    }
+
+    //Antes de una escritura síncrona sobre la tarea se guarda su cambio pendiente, así no la pisa después
+    public void aplicarPendiente(Long id) {
+        if (!pendientes.containsKey(id)) {
+            return;
+        }
+        synchronized (candado) {
+            EstadoTarea estado = pendientes.get(id);
+            if (estado != null) {
+                aplicar(Map.of(id, estado));
+            }
+        }
+    }
+
+    //La tarea se va a eliminar, su cambio pendiente ya no importa
+    public void descartar(Long id) {
+        pendientes.remove(id);
+    }
+
+    @Scheduled(fixedDelayString = "${tareas.escritura-diferida.intervalo-ms:100}")
+    public void programado() {
+        vaciar();
+    }
+
+    //Guarda lo que estaba pendiente al empezar; lo que llega mientras tanto espera al siguiente ciclo.
+    //Regresa el número de tareas que cambiaron de estado.
+    public int vaciar() {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+        synchronized (candado) {
+            List<Long> ids = new ArrayList<>(pendientes.keySet());
+            int cambiadas = 0;
+            for (int inicio = 0; inicio < ids.size(); inicio += tamanoLote) {
+                Map<Long, EstadoTarea> lote = new HashMap<>();
+                for (Long id : ids.subList(inicio, Math.min(inicio + tamanoLote, ids.size()))) {
+                    EstadoTarea estado = pendientes.get(id);
+                    if (estado != null) {
+                        lote.put(id, estado);
+                    }
+                }
+                int cambiadasLote = aplicar(lote);
+                if (cambiadasLote < 0) {
+                    break;
+                }
+                cambiadas += cambiadasLote;
+            }
+            return cambiadas;
+        }
+    }
+
+    //Al empezar el apagado se dejan de aceptar cambios y se guardan los pendientes; si el proceso muere antes se pierden
+    @EventListener(ContextClosedEvent.class)
+    public void drenar() {
+        cerrada = true;
+        int cambiadas = vaciar();
+        if (!pendientes.isEmpty()) {
+            log.warn("Escritura diferida: {} cambios de estado no se pudieron guardar al apagar", pendientes.size());
+        } else if (cambiadas > 0) {
+            log.info("Escritura diferida: {} cambios de estado guardados al apagar", cambiadas);
+        }
+    }
+
+    //Un lote en una transacción: se cargan las tareas y Hibernate manda los UPDATE versionados en batch.
+    //Regresa las tareas que cambiaron, o -1 si falló y el lote se queda pendiente para el siguiente ciclo.
+    private int aplicar(Map<Long, EstadoTarea> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        List<TareaEvento> cambiadas;
+        try {
+            cambiadas = transactionTemplate.execute(status -> {
+                List<TareaEvento> cambios = new ArrayList<>(lote.size());
+                for (Tarea tarea : tareaRepository.findAllById(lote.keySet())) {
+                    EstadoTarea estado = lote.get(tarea.getId());
+                    if (tarea.getEstadoTarea() != estado) {
+                        cambios.add(TareaEvento.cambioDeEstado(tarea.getId(), estado, tarea.getEstadoTarea(), tarea.idUsuarioAsignado()));
+                        tarea.setEstadoTarea(estado);
+                    }
+                }
+                return cambios;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Escritura diferida: no se pudo guardar un lote de {} cambios de estado, se reintenta", lote.size(), e);
+            return -1;
+        }
+        //Solo se quita el pendiente si no llegó otro estado mientras se guardaba; las tareas eliminadas también se quitan
+        lote.forEach(pendientes::remove);
+        cambiadas.forEach(eventos::publishEvent);
+        aplicados.increment(cambiadas.size());
+        return cambiadas.size();
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.leonardogarza.bootcamp.tasksService.estadisticas;
+
+import com.leonardogarza.bootcamp.tasksService.dto.EstadisticasTareas;
+import com.leonardogarza.bootcamp.tasksService.evento.CargaMasivaTareas;
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Conteo de tareas por estado y por usuario en memoria, mantenido con los TareaEvento y reconciliado con la base de datos.
+@Component
+public class ContadoresTareas {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadoresTareas.class);
+
+    private static final LongAdder[] VACIOS = nuevosContadores();
+
+    private final TareaRepository tareaRepository;
+    private final TransactionTemplate transactionTemplate;
+    //Los eventos toman el candado de lectura entre ellos no se bloquean; la reconciliación toma el de escritura
+    //solo para cambiar los contadores por los leídos, no mientras lee la tabla
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    //Eventos recibidos mientras una reconciliación lee la tabla, null si no hay una en curso
+    private volatile List<TareaEvento> durante;
+    //Indexados por el código del estado
+    private final LongAdder[] porEstado = nuevosContadores();
+    private final Map<Long, LongAdder[]> porUsuario = new ConcurrentHashMap<>();
+
+    public ContadoresTareas(TareaRepository tareaRepository, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry){
+        this.tareaRepository = tareaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setReadOnly(true);
+        //Las dos consultas de la reconciliación ven la misma foto de la tabla
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        for (EstadoTarea estado : EstadoTarea.values()) {
+            Gauge.builder("tareas.estado", porEstado[estado.getCodigo()], LongAdder::sum)
+                    .tag("estado", estado.getEtiqueta())
+                    .register(meterRegistry);
+        }
+    }
+
+    //Cuenta la tabla agrupada sin bloquear los eventos. Los que llegaron mientras tanto pudieron entrar o no en el conteo,
+    //así que sus tareas se cuentan con el último evento en lugar de con lo que se leyó de ellas en la misma foto.
+    //Un evento que se publica después del cambio de contadores pero cuyo commit entró en la foto se cuenta dos veces
+    //hasta la siguiente reconciliación, igual que dos eventos de la misma tarea que llegan en otro orden que sus commits.
+    @EventListener({ApplicationReadyEvent.class, CargaMasivaTareas.class})
+    @Scheduled(fixedDelayString = "${tareas.estadisticas.reconciliar-ms:300000}", initialDelayString = "${tareas.estadisticas.reconciliar-ms:300000}")
+    public synchronized void reconciliar() {
+        long inicio = System.nanoTime();
+        List<TareaEvento> recibidos = new ArrayList<>();
+        durante = recibidos;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<TareaRepository.ConteoEstadoUsuario> conteos = tareaRepository.contarPorEstadoYUsuario();
+                candado.writeLock().lock();
+                try {
+                    Map<Long, TareaEvento> ultimos = new HashMap<>();
+                    synchronized (recibidos) {
+                        recibidos.forEach(evento -> ultimos.put(evento.id(), evento));
+                    }
+                    //Consulta por llave primaria de las pocas tareas que cambiaron durante la lectura
+                    List<TareaRepository.EstadoUsuarioTarea> leidas = ultimos.isEmpty() ? List.of() : tareaRepository.findEstadosByIdIn(ultimos.keySet());
+                    porUsuario.clear();
+                    Arrays.stream(porEstado).forEach(LongAdder::reset);
+                    conteos.forEach(conteo -> sumar(conteo.getEstado(), conteo.getUsuarioId(), conteo.getTotal()));
+                    leidas.forEach(tarea -> sumar(tarea.getEstado(), tarea.getUsuarioId(), -1));
+                    ultimos.values().forEach(evento -> sumar(evento.estado(), evento.usuarioId(), 1));
+                    durante = null;
+                } finally {
+                    candado.writeLock().unlock();
+                }
+            });
+        } finally {
+            durante = null;
+        }
+        log.info("Contadores de tareas reconciliados: {} tareas en {} ms", total(porEstado), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    //Resta la tarea de donde estaba y la suma donde quedó
+    @EventListener
+    public void alCambiar(TareaEvento evento) {
+        candado.readLock().lock();
+        try {
+            List<TareaEvento> recibidos = durante;
+            if (recibidos != null) {
+                synchronized (recibidos) {
+                    recibidos.add(evento);
+                }
+            }
+            sumar(evento.estadoAnterior(), evento.usuarioIdAnterior(), -1);
+            sumar(evento.estado(), evento.usuarioId(), 1);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    //Los totales se leen sin candado, cada contador es exacto aunque la suma de todos puede ir un evento atrás
+    public EstadisticasTareas estadisticas() {
+        Map<Long, Long> usuarios = new TreeMap<>();
+        porUsuario.forEach((usuarioId, contadores) -> {
+            long total = total(contadores);
+            if (total > 0) {
+                usuarios.put(usuarioId, total);
+            }
+        });
+        return new EstadisticasTareas(null, total(porEstado), porEtiqueta(porEstado), usuarios);
+    }
+
+    public EstadisticasTareas estadisticas(Long usuarioId) {
+        LongAdder[] contadores = porUsuario.getOrDefault(usuarioId, VACIOS);
+        return new EstadisticasTareas(usuarioId, total(contadores), porEtiqueta(contadores), null);
+    }
+
+    private void sumar(EstadoTarea estado, Long usuarioId, long delta) {
+        if (estado == null) {
+            return;
+        }
+        int codigo = estado.getCodigo();
+        porEstado[codigo].add(delta);
+        if (usuarioId != null) {
+            porUsuario.computeIfAbsent(usuarioId, id -> nuevosContadores())[codigo].add(delta);
+        }
+    }
+
+    private static Map<String, Long> porEtiqueta(LongAdder[] contadores) {
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        for (EstadoTarea estado : EstadoTarea.values()) {
+            resultado.put(estado.getEtiqueta(), contadores[estado.getCodigo()].sum());
+        }
+        return resultado;
+    }
+
+    private static long total(LongAdder[] contadores) {
+        long total = 0;
+        for (LongAdder contador : contadores) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    private static LongAdder[] nuevosContadores() {
+        LongAdder[] contadores = new LongAdder[EstadoTarea.values().length];
+        Arrays.setAll(contadores, i -> new LongAdder());
+        return contadores;
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.leonardogarza.bootcamp.tasksService.evento;
+
+//Se insertaron muchas tareas de una vez sin publicar un TareaEvento por cada una (ver GeneradorDatos).
+//Quien mantiene estado derivado de las tareas lo reconstruye desde la base de datos.
+public record CargaMasivaTareas(long tareas) {
+}
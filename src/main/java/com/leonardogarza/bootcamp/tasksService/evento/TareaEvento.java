@@ -0,0 +1,40 @@
+package com.leonardogarza.bootcamp.tasksService.evento;
+
+import com.leonardogarza.bootcamp.tasksService.dto.CambiosTarea;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+
+//Cambio de una tarea que ya quedó guardado en la base de datos, se publica como evento de aplicación.
+//estado y usuarioId son los de la tarea después del cambio y estadoAnterior y usuarioIdAnterior los de antes
+//(nulos en CREADA; en ELIMINADA solo viajan los anteriores). titulo y descripcion nulos en ACTUALIZADA no cambiaron.
+public record TareaEvento(Tipo tipo, Long id, String titulo, String descripcion, EstadoTarea estado, Long usuarioId,
+                          EstadoTarea estadoAnterior, Long usuarioIdAnterior) {
+
+    public enum Tipo { CREADA, ACTUALIZADA, ELIMINADA }
+
+    public static TareaEvento creada(Tarea tarea) {
+        return new TareaEvento(Tipo.CREADA, tarea.getId(), tarea.getTitulo(), tarea.getDescripcion(), tarea.getEstadoTarea(),
+                tarea.idUsuarioAsignado(), null, null);
+    }
+
+    public static TareaEvento actualizada(Tarea tarea, EstadoTarea estadoAnterior, Long usuarioIdAnterior) {
+        return new TareaEvento(Tipo.ACTUALIZADA, tarea.getId(), tarea.getTitulo(), tarea.getDescripcion(), tarea.getEstadoTarea(),
+                tarea.idUsuarioAsignado(), estadoAnterior, usuarioIdAnterior);
+    }
+
+    //PATCH: los campos que no vienen en los cambios se quedan como estaban
+    public static TareaEvento actualizada(Long id, CambiosTarea cambios, EstadoTarea estado, EstadoTarea estadoAnterior, Long usuarioIdAnterior) {
+        return new TareaEvento(Tipo.ACTUALIZADA, id, cambios.titulo(), cambios.descripcion(), estado != null ? estado : estadoAnterior,
+                cambios.usuarioId() != null ? cambios.usuarioId() : usuarioIdAnterior, estadoAnterior, usuarioIdAnterior);
+    }
+
+    //Cambio solo de estado guardado por la escritura diferida, o transición a Vencida hecha por el barrido
+    public static TareaEvento cambioDeEstado(Long id, EstadoTarea estado, EstadoTarea estadoAnterior, Long usuarioId) {
+        return new TareaEvento(Tipo.ACTUALIZADA, id, null, null, estado, usuarioId, estadoAnterior, usuarioId);
+    }
+
+    public static TareaEvento eliminada(Long id, EstadoTarea estadoAnterior, Long usuarioIdAnterior) {
+        return new TareaEvento(Tipo.ELIMINADA, id, null, null, null, null, estadoAnterior, usuarioIdAnterior);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.leonardogarza.bootcamp.tasksService.exportacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+//Exporta todas las tareas como JSON delimitado por saltos de línea (una tarea por línea).
+//Las filas se leen de un cursor JDBC y se escriben conforme llegan; cada tarea se desprende
+//del contexto de persistencia al escribirse, así la memoria no crece con el tamaño de la tabla.
+@Component
+public class ExportadorTareas {
+
+    private static final String H2 = "H2";
+
+    private final TareaRepository tareaRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter escritor;
+    private final int filasPorFlush;
+
+    public ExportadorTareas(TareaRepository tareaRepository, EntityManager entityManager, TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper, @Value("${tareas.exportacion.filas-por-flush:500}") int filasPorFlush){
+        this.tareaRepository = tareaRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.filasPorFlush = filasPorFlush;
+    }
+
+    //Escribe todas las tareas en la salida y regresa cuántas se exportaron
+    public long exportar(OutputStream salida) {
+        return transactionTemplate.execute(status -> {
+            //H2 materializa el resultado completo en memoria salvo que la ejecución sea perezosa;
+            //se activa solo para esta conexión y se restaura antes de devolverla al pool
+            ejecucionPerezosaH2(true);
+            try (JsonGenerator generador = escritor.createGenerator(salida);
+                 Stream<Tarea> tareas = tareaRepository.streamAll()) {
+                long filas = 0;
+                Iterator<Tarea> iterador = tareas.iterator();
+                while (iterador.hasNext()) {
+                    Tarea tarea = iterador.next();
+                    escritor.writeValue(generador, tarea);
+                    generador.writeRaw('\n');
+                    entityManager.detach(tarea);
+                    if (tarea.getUsuarioAsignado() != null) {
+                        entityManager.detach(tarea.getUsuarioAsignado());
+                    }
+                    if (++filas % filasPorFlush == 0) {
+                        generador.flush();
+                    }
+                }
+                generador.flush();
+                return filas;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                ejecucionPerezosaH2(false);
+            }
+        });
+    }
+
+    //Se ejecuta directo en la conexión JDBC: como query nativa de Hibernate se tomaría como un cambio a todas las tablas
+    //y vaciaría todas las regiones del cache de segundo nivel. Con otra base de datos no hace nada.
+    private void ejecucionPerezosaH2(boolean activa) {
+        entityManager.unwrap(Session.class).doWork(conexion -> {
+            if (H2.equals(conexion.getMetaData().getDatabaseProductName())) {
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.execute("SET LAZY_QUERY_EXECUTION " + (activa ? "TRUE" : "FALSE"));
+                }
+            }
+        });
+    }
+}
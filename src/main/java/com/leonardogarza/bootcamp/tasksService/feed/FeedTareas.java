@@ -0,0 +1,259 @@
+package com.leonardogarza.bootcamp.tasksService.feed;
+
+import com.leonardogarza.bootcamp.tasksService.dto.CambioTarea;
+import com.leonardogarza.bootcamp.tasksService.evento.CargaMasivaTareas;
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Feed de cambios de tareas para GET /tareas/stream (Server-Sent Events), con los cambios de cada tarea juntados por intervalo.
+@Component
+public class FeedTareas {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedTareas.class);
+
+    public static final String RECARGA = "recarga";
+
+    private final int maxPendientes;
+    private final int tamanoHistorial;
+    private final long latidoMs;
+    //Los envíos corren fuera del hilo del scheduler para que un cliente lento no retrase a los demás
+    private final ExecutorService envios;
+
+    //Los eventos solo se encolan en el hilo que escribió la tarea; despachar() los reparte a los suscriptores
+    private final Queue<TareaEvento> recibidos = new ConcurrentLinkedQueue<>();
+
+    //historial y suscriptores se modifican con el candado del feed, así una suscripción que repite el historial
+    //no pierde ni duplica los cambios que se reparten mientras se registra
+    private final Object candado = new Object();
+    private final ArrayDeque<CambioTarea> historial = new ArrayDeque<>();
+    private final List<Suscriptor> suscriptores = new ArrayList<>();
+    private volatile long ultimoEvento;
+
+    public FeedTareas(@Value("${tareas.stream.max-pendientes:500}") int maxPendientes,
+                      @Value("${tareas.stream.historial:5000}") int tamanoHistorial,
+                      @Value("${tareas.stream.latido-ms:15000}") long latidoMs,
+                      @Value("${tareas.stream.hilos-envio:4}") int hilosEnvio,
+                      MeterRegistry meterRegistry){
+        this.maxPendientes = maxPendientes;
+        this.tamanoHistorial = tamanoHistorial;
+        this.latidoMs = latidoMs;
+        this.envios = Executors.newFixedThreadPool(hilosEnvio);
+        Gauge.builder("tareas.stream.suscriptores", this, FeedTareas::suscriptores).register(meterRegistry);
+    }
+
+    //Filtros opcionales por usuario y estado; desde es el último evento que recibió el cliente (null si es nuevo)
+    public SseEmitter suscribir(Long usuarioId, EstadoTarea estado, Long desde) {
+        SseEmitter emitter = new SseEmitter();
+        Suscriptor suscriptor = new Suscriptor(emitter, usuarioId, estado);
+        synchronized (candado) {
+            //Lo que llegó antes de la suscripción pasa primero al historial
+            repartir();
+            if (desde != null && desde < ultimoEvento) {
+                if (historial.isEmpty() || historial.peekFirst().evento() > desde + 1) {
+                    suscriptor.recarga = true;
+                } else {
+                    for (CambioTarea cambio : historial) {
+                        if (cambio.evento() > desde && suscriptor.acepta(cambio)) {
+                            suscriptor.agregar(cambio, maxPendientes);
+                        }
+                    }
+                }
+            }
+            suscriptores.add(suscriptor);
+        }
+        emitter.onCompletion(() -> quitar(suscriptor));
+        emitter.onTimeout(() -> quitar(suscriptor));
+        emitter.onError(error -> quitar(suscriptor));
+        return emitter;
+    }
+
+    @EventListener
+    public void alCambiar(TareaEvento evento) {
+        recibidos.add(evento);
+    }
+
+    //Después de una carga masiva no hay cambios por tarea, todos los clientes recargan
+    @EventListener
+    public void alCargaMasiva(CargaMasivaTareas carga) {
+        synchronized (candado) {
+            repartir();
+            historial.clear();
+            suscriptores.forEach(suscriptor -> suscriptor.marcarRecarga());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tareas.stream.intervalo-ms:200}")
+    public void despachar() {
+        List<Suscriptor> activos;
+        synchronized (candado) {
+            repartir();
+            activos = new ArrayList<>(suscriptores);
+        }
+        long ahora = System.currentTimeMillis();
+        for (Suscriptor suscriptor : activos) {
+            if ((suscriptor.tienePendientes() || ahora - suscriptor.ultimoEnvio >= latidoMs) && suscriptor.enviando.compareAndSet(false, true)) {
+                envios.execute(() -> enviar(suscriptor));
+            }
+        }
+    }
+
+    public int suscriptores() {
+        synchronized (candado) {
+            return suscriptores.size();
+        }
+    }
+
+    //Se cierran las conexiones al empezar el apagado, si no el apagado ordenado de Tomcat espera a que terminen
+    @EventListener(ContextClosedEvent.class)
+    public void cerrar() {
+        synchronized (candado) {
+            suscriptores.forEach(suscriptor -> suscriptor.emitter.complete());
+            suscriptores.clear();
+        }
+    }
+
+    @PreDestroy
+    public void detenerEnvios() {
+        envios.shutdownNow();
+    }
+
+    private void enviar(Suscriptor suscriptor) {
+        try {
+            boolean recarga;
+            List<CambioTarea> cambios;
+            synchronized (suscriptor) {
+                recarga = suscriptor.recarga;
+                cambios = new ArrayList<>(suscriptor.pendientes.values());
+                suscriptor.recarga = false;
+                suscriptor.pendientes.clear();
+            }
+            if (recarga) {
+                suscriptor.emitter.send(SseEmitter.event().name(RECARGA).id(String.valueOf(ultimoEvento)).data(RECARGA));
+            }
+            for (CambioTarea cambio : cambios) {
+                suscriptor.emitter.send(SseEmitter.event().id(String.valueOf(cambio.evento())).name(cambio.tipo())
+                        .data(cambio, MediaType.APPLICATION_JSON));
+            }
+            if (!recarga && cambios.isEmpty()) {
+                suscriptor.emitter.send(SseEmitter.event().comment("latido"));
+            }
+            suscriptor.ultimoEnvio = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            //El cliente se desconectó
+            log.debug("Feed de tareas: se quita un suscriptor", e);
+            quitar(suscriptor);
+            suscriptor.emitter.completeWithError(e);
+        } finally {
+            suscriptor.enviando.set(false);
+        }
+    }
+
+    //Pasa los eventos recibidos al historial y a los suscriptores, con el candado del feed
+    private void repartir() {
+        TareaEvento evento;
+        while ((evento = recibidos.poll()) != null) {
+            //De una tarea eliminada se envían el usuario y estado que tenía
+            boolean eliminada = evento.tipo() == TareaEvento.Tipo.ELIMINADA;
+            EstadoTarea estado = eliminada ? evento.estadoAnterior() : evento.estado();
+            CambioTarea cambio = new CambioTarea(++ultimoEvento, tipo(evento), evento.id(), evento.titulo(), evento.descripcion(),
+                    estado == null ? null : estado.getEtiqueta(), eliminada ? evento.usuarioIdAnterior() : evento.usuarioId());
+            historial.addLast(cambio);
+            if (historial.size() > tamanoHistorial) {
+                historial.removeFirst();
+            }
+            for (Suscriptor suscriptor : suscriptores) {
+                //Una tarea que sale del filtro (otro usuario u otro estado) también se avisa para que el cliente la quite
+                if (suscriptor.acepta(cambio) || suscriptor.aceptaAnterior(evento)) {
+                    suscriptor.agregar(cambio, maxPendientes);
+                }
+            }
+        }
+    }
+
+    private void quitar(Suscriptor suscriptor) {
+        synchronized (candado) {
+            suscriptores.remove(suscriptor);
+        }
+    }
+
+    private static String tipo(TareaEvento evento) {
+        return switch (evento.tipo()) {
+            case CREADA -> CambioTarea.CREADA;
+            case ELIMINADA -> CambioTarea.ELIMINADA;
+            case ACTUALIZADA -> evento.estado() == EstadoTarea.VENCIDA && evento.estadoAnterior() != EstadoTarea.VENCIDA
+                    && evento.titulo() == null && evento.descripcion() == null && Objects.equals(evento.usuarioId(), evento.usuarioIdAnterior())
+                    ? CambioTarea.VENCIDA : CambioTarea.ACTUALIZADA;
+        };
+    }
+
+    private static final class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final Long usuarioId;
+        private final String estado;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        //Cambios por enviar, uno por tarea en el orden de su último cambio (ids de evento crecientes, para que
+        //Last-Event-ID no se salte nada al reconectarse); con el candado del suscriptor
+        private final LinkedHashMap<Long, CambioTarea> pendientes = new LinkedHashMap<>();
+        private boolean recarga;
+        private volatile long ultimoEnvio = System.currentTimeMillis();
+
+        private Suscriptor(SseEmitter emitter, Long usuarioId, EstadoTarea estado) {
+            this.emitter = emitter;
+            this.usuarioId = usuarioId;
+            this.estado = estado == null ? null : estado.getEtiqueta();
+        }
+
+        private boolean acepta(CambioTarea cambio) {
+            return (usuarioId == null || usuarioId.equals(cambio.usuarioId())) && (estado == null || estado.equals(cambio.estado()));
+        }
+
+        //Con el usuario y estado que tenía la tarea antes del cambio, una tarea nueva no tiene estado anterior
+        private boolean aceptaAnterior(TareaEvento evento) {
+            return evento.estadoAnterior() != null && (usuarioId == null || usuarioId.equals(evento.usuarioIdAnterior()))
+                    && (estado == null || estado.equals(evento.estadoAnterior().getEtiqueta()));
+        }
+
+        private synchronized void agregar(CambioTarea cambio, int maxPendientes) {
+            if (recarga) {
+                return;
+            }
+            //Se quita y se vuelve a poner para que la tarea pase al final con el id del evento más nuevo
+            CambioTarea anterior = pendientes.remove(cambio.id());
+            pendientes.put(cambio.id(), anterior == null ? cambio : anterior.combinar(cambio));
+            if (pendientes.size() > maxPendientes) {
+                marcarRecarga();
+            }
+        }
+
+        private synchronized void marcarRecarga() {
+            recarga = true;
+            pendientes.clear();
+        }
+
+        private synchronized boolean tienePendientes() {
+            return recarga || !pendientes.isEmpty();
+        }
+
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.leonardogarza.bootcamp.tasksService.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.leonardogarza.bootcamp.tasksService.model.LlaveIdempotencia;
+import com.leonardogarza.bootcamp.tasksService.repository.LlaveIdempotenciaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+//Llaves de idempotencia (header Idempotency-Key) para los POST de alta.
+//La primera solicitud con una llave se ejecuta y su respuesta se guarda idempotencia.ttl; las repeticiones reciben
+//la misma respuesta (status, Location y cuerpo) sin tocar los repositorios, con el header Idempotent-Replayed.
+//Las solicitudes simultáneas con la misma llave esperan a la primera en lugar de ejecutarse otra vez.
+//Si la primera termina en 5xx la llave se libera para que el cliente pueda reintentar.
+//Las llaves viven en un cache acotado a idempotencia.max-llaves; con idempotencia.persistir=true también se guardan
+//en la tabla llave_idempotencia para sobrevivir a un reinicio (útil con el perfil persistente).
+@Component
+public class AlmacenIdempotencia {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenIdempotencia.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+    private static final int LONGITUD_MAXIMA = 255;
+
+    private final ObjectMapper objectMapper;
+    private final LlaveIdempotenciaRepository llaveIdempotenciaRepository;
+    private final Duration ttl;
+    private final Duration espera;
+    private final boolean persistir;
+    //El valor es la respuesta en curso o terminada, así las solicitudes simultáneas se juntan en una sola ejecución
+    private final Cache<String, CompletableFuture<Respuesta>> llaves;
+    private final Counter repetidas;
+
+    public AlmacenIdempotencia(ObjectMapper objectMapper, LlaveIdempotenciaRepository llaveIdempotenciaRepository,
+                               @Value("${idempotencia.ttl:24h}") Duration ttl,
+                               @Value("${idempotencia.max-llaves:100000}") long maxLlaves,
+                               @Value("${idempotencia.espera:30s}") Duration espera,
+                               @Value("${idempotencia.persistir:false}") boolean persistir,
+                               MeterRegistry meterRegistry){
+        this.objectMapper = objectMapper;
+        this.llaveIdempotenciaRepository = llaveIdempotenciaRepository;
+        this.ttl = ttl;
+        this.espera = espera;
+        this.persistir = persistir;
+        this.llaves = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxLlaves)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, llaves, "idempotencia");
+        this.repetidas = meterRegistry.counter("idempotencia.repetidas");
+    }
+
+    //operacion distingue el endpoint (p. ej. "POST /tareas"); sin llave la acción se ejecuta normal
+    public ResponseEntity<?> ejecutar(String llave, String operacion, Object solicitud, Supplier<ResponseEntity<?>> accion) {
+        if (llave == null) {
+            return accion.get();
+        }
+        if (llave.isBlank() || llave.length() > LONGITUD_MAXIMA) {
+            return ResponseEntity.badRequest().body("Idempotency-Key inválida, debe tener entre 1 y " + LONGITUD_MAXIMA + " caracteres");
+        }
+        String clave = operacion + " " + llave;
+        String huella = huella(solicitud);
+        //Un segundo intento solo ocurre si la solicitud original falló mientras se esperaba
+        for (int intento = 0; intento < 2; intento++) {
+            CompletableFuture<Respuesta> nueva = new CompletableFuture<>();
+            CompletableFuture<Respuesta> existente = llaves.asMap().putIfAbsent(clave, nueva);
+            if (existente == null) {
+                Respuesta guardada = persistir ? buscarGuardada(clave) : null;
+                if (guardada != null) {
+                    nueva.complete(guardada);
+                    return repetir(guardada, huella);
+                }
+                return ejecutarPrimera(clave, huella, nueva, accion);
+            }
+            try {
+                return repetir(existente.get(espera.toMillis(), TimeUnit.MILLISECONDS), huella);
+            } catch (ExecutionException e) {
+                log.debug("Idempotencia: la solicitud original con la llave {} falló, se reintenta", llave);
+            } catch (TimeoutException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Hay una solicitud en curso con la misma Idempotency-Key");
+    }
+
+    //Las llaves guardadas en la base que ya pasaron el TTL; las del cache expiran solas
+    @Scheduled(fixedDelayString = "${idempotencia.purga-ms:3600000}")
+    public void purgar() {
+        if (persistir) {
+            int purgadas = llaveIdempotenciaRepository.purgarAnteriores(Instant.now().minus(ttl));
+            log.debug("Idempotencia: {} llaves purgadas", purgadas);
+        }
+    }
+
+    private ResponseEntity<?> ejecutarPrimera(String clave, String huella, CompletableFuture<Respuesta> nueva,
+                                              Supplier<ResponseEntity<?>> accion) {
+        ResponseEntity<?> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException e) {
+            liberar(clave, nueva, e);
+            throw e;
+        }
+        if (respuesta.getStatusCode().is5xxServerError()) {
+            liberar(clave, nueva, new IllegalStateException("La solicitud original terminó con " + respuesta.getStatusCode()));
+            return respuesta;
+        }
+        Respuesta guardada = Respuesta.de(huella, respuesta);
+        nueva.complete(guardada);
+        if (persistir) {
+            guardar(clave, guardada);
+        }
+        return respuesta;
+    }
+
+    private void liberar(String clave, CompletableFuture<Respuesta> nueva, Exception causa) {
+        llaves.asMap().remove(clave, nueva);
+        nueva.completeExceptionally(causa);
+    }
+
+    private ResponseEntity<?> repetir(Respuesta respuesta, String huella) {
+        if (!respuesta.huella().equals(huella)) {
+            return ResponseEntity.unprocessableEntity().body("La Idempotency-Key ya se usó con una solicitud distinta");
+        }
+        repetidas.increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(respuesta.status()).header(HEADER_REPETIDA, "true");
+        if (respuesta.location() != null) {
+            builder.location(URI.create(respuesta.location()));
+        }
+        return respuesta.cuerpo() == null ? builder.build() : builder.body(respuesta.cuerpo());
+    }
+
+    private Respuesta buscarGuardada(String clave) {
+        try {
+            return llaveIdempotenciaRepository.findById(clave)
+                    .filter(llave -> llave.getCreada().isAfter(Instant.now().minus(ttl)))
+                    .map(llave -> new Respuesta(llave.getHuella(), llave.getStatus(), llave.getLocation(), llave.getCuerpo()))
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Idempotencia: no se pudo leer la llave guardada {}", clave, e);
+            return null;
+        }
+    }
+
+    //Si falla solo se pierde la protección después de un reinicio, la respuesta sigue en el cache
+    private void guardar(String clave, Respuesta respuesta) {
+        try {
+            llaveIdempotenciaRepository.save(new LlaveIdempotencia(clave, respuesta.huella(), respuesta.status(),
+                    respuesta.location(), respuesta.cuerpo(), Instant.now()));
+        } catch (DataAccessException e) {
+            log.warn("Idempotencia: no se pudo guardar la llave {}", clave, e);
+        }
+    }
+
+    private String huella(Object solicitud) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(solicitud));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+
+    //Lo que se repite de la respuesta original; los cuerpos de los POST de alta son mensajes de texto o vacíos
+    record Respuesta(String huella, int status, String location, String cuerpo) {
+
+        static Respuesta de(String huella, ResponseEntity<?> respuesta) {
+            URI location = respuesta.getHeaders().getLocation();
+            Object cuerpo = respuesta.getBody();
+            return new Respuesta(huella, respuesta.getStatusCode().value(), location == null ? null : location.toString(),
+                    cuerpo instanceof String texto ? texto : null);
+        }
+    }
+
+}
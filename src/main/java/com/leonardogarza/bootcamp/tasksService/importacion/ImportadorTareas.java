@@ -0,0 +1,206 @@
+package com.leonardogarza.bootcamp.tasksService.importacion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.leonardogarza.bootcamp.tasksService.dto.FilaRechazada;
+import com.leonardogarza.bootcamp.tasksService.dto.ResultadoImportacion;
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import com.leonardogarza.bootcamp.tasksService.repository.UsuarioRepository;
+import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import com.leonardogarza.bootcamp.tasksService.util.Csv;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+//Importación masiva de tareas desde CSV o NDJSON, leída línea por línea y guardada por chunks.
+@Component
+public class ImportadorTareas {
+
+    public enum Formato { CSV, NDJSON }
+
+    private static final Logger log = LoggerFactory.getLogger(ImportadorTareas.class);
+
+    private static final List<String> COLUMNAS_CSV = List.of("titulo", "descripcion", "estado", "fechaLimite", "usuarioId");
+
+    private final TareaRepository tareaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader lectorTarea;
+    private final int tamanoChunk;
+    private final int maxRechazosReportados;
+    private final ApplicationEventPublisher eventos;
+
+    private final Counter contadorImportadas;
+    private final Counter contadorRechazadas;
+
+    public ImportadorTareas(TareaRepository tareaRepository, UsuarioRepository usuarioRepository, EntityManager entityManager,
+                            TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                            @Value("${tareas.importacion.tamano-chunk:1000}") int tamanoChunk,
+                            @Value("${tareas.importacion.max-rechazos-reportados:100}") int maxRechazosReportados,
+                            MeterRegistry meterRegistry, ApplicationEventPublisher eventos){
+        this.tareaRepository = tareaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.lectorTarea = objectMapper.readerFor(Tarea.class);
+        this.tamanoChunk = tamanoChunk;
+        this.maxRechazosReportados = maxRechazosReportados;
+        this.eventos = eventos;
+        this.contadorImportadas = meterRegistry.counter("tareas.importacion.filas", "resultado", "importada");
+        this.contadorRechazadas = meterRegistry.counter("tareas.importacion.filas", "resultado", "rechazada");
+    }
+
+    //Lanza IllegalArgumentException si el encabezado del CSV no trae las columnas requeridas
+    public ResultadoImportacion importar(InputStream entrada, Formato formato) throws IOException {
+        Importacion importacion = new Importacion(new HashSet<>(usuarioRepository.findAllIds()));
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Map<String, Integer> columnas = null;
+        long numeroLinea = 0;
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            if (formato == Formato.CSV && columnas == null) {
+                columnas = encabezado(linea);
+                continue;
+            }
+            importacion.procesar(numeroLinea, linea, columnas);
+        }
+        importacion.guardar();
+        return importacion.resultado();
+    }
+
+    private static Map<String, Integer> encabezado(String linea) {
+        List<String> nombres = Csv.campos(linea);
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < nombres.size(); i++) {
+            columnas.put(nombres.get(i).trim(), i);
+        }
+        if (!columnas.keySet().containsAll(COLUMNAS_CSV)) {
+            throw new IllegalArgumentException("El CSV debe traer las columnas " + COLUMNAS_CSV);
+        }
+        return columnas;
+    }
+
+    private record Fila(long linea, Tarea tarea, Long usuarioId) {
+    }
+
+    //Estado de una importación en curso, una instancia por petición
+    private class Importacion {
+        private final Set<Long> idsUsuarios;
+        private final List<Fila> chunk = new ArrayList<>(tamanoChunk);
+        private final List<FilaRechazada> rechazadas = new ArrayList<>();
+        private long procesadas;
+        private long importadas;
+        private long chunks;
+        private long rechazosOmitidos;
+
+        Importacion(Set<Long> idsUsuarios) {
+            this.idsUsuarios = idsUsuarios;
+        }
+
+        void procesar(long numeroLinea, String linea, Map<String, Integer> columnas) {
+            procesadas++;
+            Fila fila;
+            try {
+                fila = columnas == null ? deNdjson(numeroLinea, linea) : deCsv(numeroLinea, linea, columnas);
+            } catch (JsonProcessingException | DateTimeParseException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                rechazar(numeroLinea, "Fila mal formada");
+                return;
+            }
+            if (fila.tarea().getEstadoTarea() == null) {
+                rechazar(numeroLinea, "Estado de tarea inválido, estados válidos: " + Constantes.ESTADOS_VALIDOS);
+            } else if (fila.usuarioId() == null || !idsUsuarios.contains(fila.usuarioId())) {
+                rechazar(numeroLinea, "Usuario no encontrado");
+            } else {
+                chunk.add(fila);
+                if (chunk.size() >= tamanoChunk) {
+                    guardar();
+                }
+            }
+        }
+
+        private Fila deNdjson(long numeroLinea, String linea) throws JsonProcessingException {
+            Tarea tarea = lectorTarea.readValue(linea);
+            Long usuarioId = tarea.getUsuarioAsignado() == null ? null : tarea.getUsuarioAsignado().getId();
+            return new Fila(numeroLinea, tarea, usuarioId);
+        }
+
+        private Fila deCsv(long numeroLinea, String linea, Map<String, Integer> columnas) {
+            List<String> campos = Csv.campos(linea);
+            String fechaLimite = campos.get(columnas.get("fechaLimite")).trim();
+            String usuarioId = campos.get(columnas.get("usuarioId")).trim();
+            Tarea tarea = new Tarea(campos.get(columnas.get("titulo")), campos.get(columnas.get("descripcion")),
+                    campos.get(columnas.get("estado")).trim(), fechaLimite.isEmpty() ? null : LocalDate.parse(fechaLimite), null);
+            return new Fila(numeroLinea, tarea, usuarioId.isEmpty() ? null : Long.valueOf(usuarioId));
+        }
+
+        private void rechazar(long numeroLinea, String error) {
+            contadorRechazadas.increment();
+            if (rechazadas.size() < maxRechazosReportados) {
+                rechazadas.add(new FilaRechazada(numeroLinea, error));
+            } else {
+                rechazosOmitidos++;
+            }
+        }
+
+        //Guarda el chunk actual en una transacción y vacía el contexto de persistencia para que no crezca entre chunks.
+        //Si el chunk falla (por ejemplo un usuario eliminado durante la importación) se rechazan sus filas y se sigue con el resto.
+        void guardar() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Tarea> tareas = new ArrayList<>(chunk.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Fila fila : chunk) {
+                        fila.tarea().setId(null);
+                        fila.tarea().setUsuarioAsignado(entityManager.getReference(Usuario.class, fila.usuarioId()));
+                        tareas.add(fila.tarea());
+                    }
+                    //Con el flush en el repositorio un error del chunk llega traducido como DataAccessException
+                    tareaRepository.saveAllAndFlush(tareas);
+                    entityManager.clear();
+                });
+                importadas += chunk.size();
+                contadorImportadas.increment(chunk.size());
+                tareas.forEach(tarea -> eventos.publishEvent(TareaEvento.creada(tarea)));
+            } catch (DataAccessException e) {
+                log.warn("Importación: no se pudo guardar el chunk {}", chunks + 1, e);
+                for (Fila fila : chunk) {
+                    rechazar(fila.linea(), "No se pudo guardar la tarea");
+                }
+            }
+            chunks++;
+            chunk.clear();
+            log.info("Importación: {} filas procesadas, {} importadas, {} chunks", procesadas, importadas, chunks);
+        }
+
+        ResultadoImportacion resultado() {
+            return new ResultadoImportacion(procesadas, importadas, chunks, rechazadas, rechazosOmitidos);
+        }
+    }
+}
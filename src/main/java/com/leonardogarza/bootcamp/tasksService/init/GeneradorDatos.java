@@ -0,0 +1,195 @@
+package com.leonardogarza.bootcamp.tasksService.init;
+
+import com.leonardogarza.bootcamp.tasksService.evento.CargaMasivaTareas;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import com.leonardogarza.bootcamp.tasksService.repository.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+//Genera usuarios y tareas sintéticos para pruebas de volumen, siempre los mismos para la misma semilla.
+//Lo usan el perfil generador (ver GenerarDatos), las pruebas y los benchmarks.
+//Distribuciones:
+// - unos pocos usuarios concentran la mayoría de las tareas (sesgo cúbico: el 20% de los usuarios tiene cerca del 60% de las tareas)
+// - estados 35% Completada, 30% Pendiente, 20% En progreso, 15% Vencida
+// - fechas límite hasta un año antes o después de la fecha de referencia: las activas vencen después de ella,
+//   las vencidas antes y las completadas en cualquier punto del rango
+// - títulos y descripciones armados con un vocabulario fijo para que el índice de búsqueda tenga términos repetidos
+@Component
+public class GeneradorDatos {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatos.class);
+
+    public record Resumen(int usuarios, int tareas, long milisegundos) {
+    }
+
+    private static final String[] NOMBRES = {"Ana", "Luis", "María", "José", "Sofía", "Carlos", "Lucía", "Jorge", "Elena",
+            "Miguel", "Valeria", "Diego", "Camila", "Andrés", "Paula", "Ricardo", "Fernanda", "Héctor", "Daniela", "Raúl"};
+    private static final String[] APELLIDOS = {"García", "Hernández", "López", "Martínez", "González", "Pérez", "Rodríguez",
+            "Sánchez", "Ramírez", "Cruz", "Flores", "Gómez", "Morales", "Vázquez", "Reyes", "Jiménez", "Torres", "Díaz"};
+    private static final String[] ACCIONES = {"Revisar", "Preparar", "Enviar", "Actualizar", "Corregir", "Documentar",
+            "Probar", "Publicar", "Migrar", "Configurar", "Analizar", "Diseñar", "Presentar", "Validar", "Cerrar"};
+    private static final String[] OBJETOS = {"informe", "presupuesto", "contrato", "servidor", "reporte", "manual",
+            "pedido", "factura", "inventario", "campaña", "respaldo", "tablero", "cliente", "proveedor", "módulo", "reunión"};
+    private static final String[] CALIFICATIVOS = {"mensual", "trimestral", "anual", "urgente", "pendiente", "nuevo",
+            "principal", "interno", "final", "de ventas", "de soporte", "de producción", "del equipo", "regional"};
+    private static final String[] PALABRAS = {"según", "lo", "acordado", "con", "el", "área", "antes", "de", "la", "entrega",
+            "incluir", "comentarios", "del", "cliente", "revisar", "pendientes", "y", "avisar", "al", "responsable", "cuando",
+            "esté", "listo", "datos", "actualizados", "junta", "semanal", "prioridad", "alta", "baja", "media"};
+
+    //Frecuencias acumuladas de cada estado en porcentaje
+    private static final EstadoTarea[] ESTADOS = {EstadoTarea.COMPLETADA, EstadoTarea.PENDIENTE, EstadoTarea.EN_PROGRESO, EstadoTarea.VENCIDA};
+    private static final int[] ACUMULADO = {35, 65, 85, 100};
+    private static final int DIAS_RANGO = 365;
+
+    private final UsuarioRepository usuarioRepository;
+    private final TareaRepository tareaRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventos;
+    private final int tamanoChunk;
+
+    public GeneradorDatos(UsuarioRepository usuarioRepository, TareaRepository tareaRepository, EntityManager entityManager,
+                          TransactionTemplate transactionTemplate, ApplicationEventPublisher eventos,
+                          @Value("${tareas.generador.tamano-chunk:1000}") int tamanoChunk){
+        this.usuarioRepository = usuarioRepository;
+        this.tareaRepository = tareaRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventos = eventos;
+        this.tamanoChunk = tamanoChunk;
+    }
+
+    //Agrega los datos a los que ya existan; las tareas solo se asignan a los usuarios generados
+    public Resumen generar(int usuarios, int tareas, long semilla, LocalDate referencia) {
+        return generar(usuarios, tareas, semilla, referencia, true);
+    }
+
+    //Sin avisar de la carga masiva cuando se genera antes de ApplicationReadyEvent, que ya reconstruye todo
+    Resumen generar(int usuarios, int tareas, long semilla, LocalDate referencia, boolean avisar) {
+        if (usuarios < 1 && tareas > 0) {
+            throw new IllegalArgumentException("Se necesita al menos un usuario para generar tareas");
+        }
+        long inicio = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(semilla);
+        long[] idsUsuarios = generarUsuarios(usuarios, random);
+        generarTareas(tareas, idsUsuarios, referencia, random);
+        //Las tareas no publican un TareaEvento cada una, el índice de búsqueda y los contadores se reconstruyen una vez
+        if (avisar) {
+            eventos.publishEvent(new CargaMasivaTareas(tareas));
+        }
+        Resumen resumen = new Resumen(usuarios, tareas, (System.nanoTime() - inicio) / 1_000_000);
+        log.info("Generador: {} usuarios y {} tareas en {} ms", usuarios, tareas, resumen.milisegundos());
+        return resumen;
+    }
+
+    private long[] generarUsuarios(int usuarios, SplittableRandom random) {
+        long[] ids = new long[usuarios];
+        List<Usuario> chunk = new ArrayList<>(tamanoChunk);
+        int guardados = 0;
+        for (int i = 0; i < usuarios; i++) {
+            String nombre = elegir(NOMBRES, random);
+            String apellido = elegir(APELLIDOS, random);
+            chunk.add(new Usuario(nombre + " " + apellido, sinAcentos(nombre + "." + apellido).toLowerCase() + "." + i + "@ejemplo.com"));
+            if (chunk.size() == tamanoChunk || i == usuarios - 1) {
+                for (Usuario usuario : enTransaccion(() -> usuarioRepository.saveAll(chunk))) {
+                    ids[guardados++] = usuario.getId();
+                }
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+
+    private void generarTareas(int tareas, long[] idsUsuarios, LocalDate referencia, SplittableRandom random) {
+        List<Tarea> chunk = new ArrayList<>(tamanoChunk);
+        long[] usuariosChunk = new long[tamanoChunk];
+        for (int i = 0; i < tareas; i++) {
+            double sesgo = random.nextDouble();
+            usuariosChunk[chunk.size()] = idsUsuarios[(int) (sesgo * sesgo * sesgo * idsUsuarios.length)];
+            EstadoTarea estado = estado(random.nextInt(100));
+            chunk.add(new Tarea(titulo(random), descripcion(random), estado, fechaLimite(estado, referencia, random), null));
+            if (chunk.size() == tamanoChunk || i == tareas - 1) {
+                enTransaccion(() -> {
+                    //La referencia se pide dentro de la transacción para asignar el usuario sin consultarlo
+                    for (int j = 0; j < chunk.size(); j++) {
+                        chunk.get(j).setUsuarioAsignado(entityManager.getReference(Usuario.class, usuariosChunk[j]));
+                    }
+                    return tareaRepository.saveAll(chunk);
+                });
+                chunk.clear();
+                if ((i + 1) % (tamanoChunk * 100) == 0) {
+                    log.info("Generador: {} de {} tareas", i + 1, tareas);
+                }
+            }
+        }
+    }
+
+    //Un chunk por transacción, sin pasar por el cache de segundo nivel y vaciando el contexto de persistencia al final
+    private <T> List<T> enTransaccion(Supplier<List<T>> guardar) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            List<T> guardados = guardar.get();
+            entityManager.flush();
+            entityManager.clear();
+            return guardados;
+        });
+    }
+
+    private static EstadoTarea estado(int percentil) {
+        int i = 0;
+        while (percentil >= ACUMULADO[i]) {
+            i++;
+        }
+        return ESTADOS[i];
+    }
+
+    private static LocalDate fechaLimite(EstadoTarea estado, LocalDate referencia, SplittableRandom random) {
+        return switch (estado) {
+            case PENDIENTE, EN_PROGRESO -> referencia.plusDays(random.nextInt(1, DIAS_RANGO + 1));
+            case VENCIDA -> referencia.minusDays(random.nextInt(1, DIAS_RANGO + 1));
+            case COMPLETADA -> referencia.plusDays(random.nextInt(-DIAS_RANGO, DIAS_RANGO + 1));
+        };
+    }
+
+    private static String titulo(SplittableRandom random) {
+        return elegir(ACCIONES, random) + " " + elegir(OBJETOS, random) + " " + elegir(CALIFICATIVOS, random);
+    }
+
+    private static String descripcion(SplittableRandom random) {
+        int palabras = random.nextInt(5, 16);
+        StringBuilder descripcion = new StringBuilder(palabras * 8);
+        for (int i = 0; i < palabras; i++) {
+            if (i > 0) {
+                descripcion.append(' ');
+            }
+            descripcion.append(elegir(PALABRAS, random));
+        }
+        return descripcion.toString();
+    }
+
+    private static String elegir(String[] opciones, SplittableRandom random) {
+        return opciones[random.nextInt(opciones.length)];
+    }
+
+    private static String sinAcentos(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+    }
+
+}
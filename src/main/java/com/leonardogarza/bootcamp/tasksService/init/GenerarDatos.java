@@ -0,0 +1,38 @@
+package com.leonardogarza.bootcamp.tasksService.init;
+
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.LocalDate;
+
+//Carga de datos sintéticos al arrancar con el perfil generador, ver application-generador.properties.
+//Con el perfil persistente no vuelve a generar si la base ya tiene al menos las tareas pedidas.
+@Configuration
+@Profile("generador")
+public class GenerarDatos {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerarDatos.class);
+
+    @Bean
+    CommandLineRunner generarDatosSinteticos(GeneradorDatos generadorDatos, TareaRepository tareaRepository,
+                                             @Value("${tareas.generador.usuarios}") int usuarios,
+                                             @Value("${tareas.generador.tareas}") int tareas,
+                                             @Value("${tareas.generador.semilla}") long semilla,
+                                             @Value("${tareas.generador.fecha-referencia:}") LocalDate referencia){
+        return args -> {
+            long existentes = tareaRepository.count();
+            if (existentes >= tareas) {
+                log.info("Generador omitido, la base ya tiene {} tareas", existentes);
+                return;
+            }
+            generadorDatos.generar(usuarios, tareas, semilla, referencia == null ? LocalDate.now() : referencia, false);
+        };
+    }
+
+}
@@ -1,47 +1,52 @@
 package com.leonardogarza.bootcamp.tasksService.init;
 
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
 import com.leonardogarza.bootcamp.tasksService.model.Tarea;
 import com.leonardogarza.bootcamp.tasksService.model.Usuario;
 import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
 import com.leonardogarza.bootcamp.tasksService.repository.UsuarioRepository;
-import com.leonardogarza.bootcamp.tasksService.util.Constantes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Configuration
 public class LoadDatabase {
 
     private static final Logger log = LoggerFactory.getLogger(LoadDatabase.class);
 
+    //Solo carga los datos de ejemplo si la base está vacía, así un arranque con datos persistentes no los duplica.
+    //Corre antes que el generador de datos sintéticos (perfil generador).
+    //Se guardan con saveAll en una sola transacción para que los inserts salgan en batches JDBC.
     @Bean
-    CommandLineRunner initDb(UsuarioRepository usuarioRepository, TareaRepository tareaRepository){
-        return args -> {
+    @Order(0)
+    CommandLineRunner initDb(UsuarioRepository usuarioRepository, TareaRepository tareaRepository, TransactionTemplate transactionTemplate){
+        return args -> transactionTemplate.executeWithoutResult(status -> {
+            if (usuarioRepository.count() > 0 || tareaRepository.count() > 0) {
+                log.info("Carga inicial omitida, la base ya tiene datos");
+                return;
+            }
 
             Usuario leonardo = new Usuario("Leonardo G", "leoG@hotmail.com");
             Usuario mich = new Usuario("Mich B", "michb@gmail.com");
             Usuario juan = new Usuario("Juan Carlos Bodoque", "notaverde@21minutos.com");
             Usuario rodolfo = new Usuario("Rodolfo el Reno", "rodolfoelreno@navidad.com");
-            log.info("Carga inicial {}", usuarioRepository.save(leonardo));
-            log.info("Carga inicial {}", usuarioRepository.save(mich));
-            log.info("Carga inicial {}", usuarioRepository.save(juan));
-            log.info("Carga inicial {}", usuarioRepository.save(rodolfo));
+            usuarioRepository.saveAll(List.of(leonardo, mich, juan, rodolfo)).forEach(usuario -> log.info("Carga inicial {}", usuario));
 
             Tarea proyectoBootcamp = new Tarea("Proyecto Bootcamp", "Proyecto final del bootcampo de microservicios con java",
-                    Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2025,6,2), leonardo);
+                    EstadoTarea.EN_PROGRESO, LocalDate.of(2025,6,2), leonardo);
             Tarea presentacionTrabajo = new Tarea("Presentacion Trabajo", "Hacer presentación del trabajo pendiente",
-                    Constantes.TAREA_ESTADO_COMPLETADA, LocalDate.of(2025, 4, 23), mich);
+                    EstadoTarea.COMPLETADA, LocalDate.of(2025, 4, 23), mich);
             Tarea notaVerde = new Tarea("Nota Verde", "Nota verde para el siguiente programa de 31 minutos",
-                    Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2025, 5, 16), juan);
-            log.info("Carga inicial {}", tareaRepository.save(proyectoBootcamp));
-            log.info("Carga inicial {}", tareaRepository.save(presentacionTrabajo));
-            log.info("Carga inicial {}", tareaRepository.save(notaVerde));
-
-        };
+                    EstadoTarea.PENDIENTE, LocalDate.of(2025, 5, 16), juan);
+            tareaRepository.saveAll(List.of(proyectoBootcamp, presentacionTrabajo, notaVerde)).forEach(tarea -> log.info("Carga inicial {}", tarea));
+        });
     }
 
 }
@@ -0,0 +1,50 @@
+package com.leonardogarza.bootcamp.tasksService.json;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+//Selección de campos de la respuesta con ?fields=id,titulo,estado (sparse fieldsets).
+//Tarea y Usuario llevan el filtro FILTRO por medio de un mixin (ver JsonConfig), sin ?fields= no se filtra nada.
+public class Campos {
+
+    public static final String FILTRO = "campos";
+
+    private Campos() {}
+
+    //Envuelve el cuerpo de una respuesta exitosa para que solo se escriban los campos pedidos.
+    //Los headers (ETag, cursor de la siguiente página) se conservan.
+    public static ResponseEntity<?> aplicar(ResponseEntity<?> respuesta, String fields) {
+        if (fields == null || fields.isBlank() || respuesta.getBody() == null || !respuesta.getStatusCode().is2xxSuccessful()) {
+            return respuesta;
+        }
+        MappingJacksonValue cuerpo = new MappingJacksonValue(respuesta.getBody());
+        cuerpo.setFilters(filtros(fields));
+        return new ResponseEntity<>(cuerpo, respuesta.getHeaders(), respuesta.getStatusCode());
+    }
+
+    public static FilterProvider filtros(String fields) {
+        Set<String> pedidos = new LinkedHashSet<>();
+        for (String campo : fields.split(",")) {
+            if (!campo.isBlank()) {
+                pedidos.add(campo.trim());
+            }
+        }
+        return new SimpleFilterProvider().addFilter(FILTRO, new FiltroCampos(pedidos));
+    }
+
+    //Sin filtros registrados (respuestas sin ?fields=) el filtro se ignora en lugar de fallar
+    public static FilterProvider sinFiltro() {
+        return new SimpleFilterProvider().setFailOnUnknownId(false);
+    }
+
+    @JsonFilter(FILTRO)
+    abstract static class ConFiltro {
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.leonardogarza.bootcamp.tasksService.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+//Filtro de Jackson para ?fields=: solo escribe las propiedades pedidas.
+//Un nombre con punto selecciona una propiedad de un objeto anidado (usuarioAsignado.nombre) y
+//un nombre sin punto incluye el objeto completo (usuarioAsignado).
+class FiltroCampos extends SimpleBeanPropertyFilter {
+
+    private final Set<String> campos = new HashSet<>();
+    //Objetos que hay que abrir para llegar a un campo anidado pedido
+    private final Set<String> contenedores = new HashSet<>();
+
+    FiltroCampos(Set<String> pedidos) {
+        for (String campo : pedidos) {
+            campos.add(campo);
+            for (int punto = campo.indexOf('.'); punto > 0; punto = campo.indexOf('.', punto + 1)) {
+                contenedores.add(campo.substring(0, punto));
+            }
+        }
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer) throws Exception {
+        if (incluye(ruta(gen.getOutputContext(), writer.getName()))) {
+            writer.serializeAsField(pojo, gen, provider);
+        } else if (!gen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, gen, provider);
+        }
+    }
+
+    private boolean incluye(String ruta) {
+        if (campos.contains(ruta) || contenedores.contains(ruta)) {
+            return true;
+        }
+        //Dentro de un objeto pedido completo se escriben todas sus propiedades
+        for (int punto = ruta.lastIndexOf('.'); punto > 0; punto = ruta.lastIndexOf('.', punto - 1)) {
+            if (campos.contains(ruta.substring(0, punto))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Nombre de la propiedad precedido por las propiedades de los objetos que la contienen (las listas no cuentan)
+    private static String ruta(JsonStreamContext contexto, String nombre) {
+        String ruta = nombre;
+        for (JsonStreamContext padre = contexto.getParent(); padre != null; padre = padre.getParent()) {
+            if (padre.inObject() && padre.getCurrentName() != null) {
+                ruta = padre.getCurrentName() + "." + ruta;
+            }
+        }
+        return ruta;
+    }
+
+}
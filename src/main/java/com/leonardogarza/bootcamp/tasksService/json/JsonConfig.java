@@ -0,0 +1,34 @@
+package com.leonardogarza.bootcamp.tasksService.json;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class JsonConfig {
+
+    //Blackbird reemplaza la reflexión en getters, setters y constructores por accesores generados
+    //con LambdaMetafactory, que el JIT puede inlinear; Spring Boot registra cualquier Module del contexto
+    @Bean
+    BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    Jackson2ObjectMapperBuilderCustomizer filtroCampos() {
+        return JsonConfig::configurar;
+    }
+
+    //Público para que los benchmarks serialicen igual que los controladores
+    public static Jackson2ObjectMapperBuilder configurar(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .mixIn(Tarea.class, Campos.ConFiltro.class)
+                .mixIn(Usuario.class, Campos.ConFiltro.class)
+                .filters(Campos.sinFiltro());
+    }
+
+}
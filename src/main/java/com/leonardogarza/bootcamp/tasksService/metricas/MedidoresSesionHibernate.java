@@ -0,0 +1,51 @@
+package com.leonardogarza.bootcamp.tasksService.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//Medidores de MetricasSesionHibernate, registrados una sola vez por ruta en el MeterRegistry de la aplicación.
+@Component
+public class MedidoresSesionHibernate {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Medidores> porRuta = new ConcurrentHashMap<>();
+
+    public MedidoresSesionHibernate(MeterRegistry meterRegistry){
+        this.meterRegistry = meterRegistry;
+    }
+
+    Medidores porRuta(String ruta) {
+        return porRuta.computeIfAbsent(ruta, this::crear);
+    }
+
+    private Medidores crear(String ruta) {
+        Tags tags = Tags.of("uri", ruta);
+        return new Medidores(
+                DistributionSummary.builder("hibernate.session.statements").tags(tags).register(meterRegistry),
+                DistributionSummary.builder("hibernate.session.flushes").tags(tags).register(meterRegistry),
+                DistributionSummary.builder("hibernate.session.entities.flushed").tags(tags).register(meterRegistry),
+                DistributionSummary.builder("hibernate.session.cache.hits").tags(tags).register(meterRegistry),
+                DistributionSummary.builder("hibernate.session.cache.misses").tags(tags).register(meterRegistry),
+                Timer.builder("hibernate.session.jdbc").tags(tags).register(meterRegistry));
+    }
+
+    record Medidores(DistributionSummary sentencias, DistributionSummary flushes, DistributionSummary entidadesFlush,
+                     DistributionSummary cacheHits, DistributionSummary cacheMisses, Timer jdbc) {
+
+        void registrar(int sentencias, int flushes, int entidadesFlush, int cacheHits, int cacheMisses, long jdbcNanos) {
+            this.sentencias.record(sentencias);
+            this.flushes.record(flushes);
+            this.entidadesFlush.record(entidadesFlush);
+            this.cacheHits.record(cacheHits);
+            this.cacheMisses.record(cacheMisses);
+            this.jdbc.record(jdbcNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.leonardogarza.bootcamp.tasksService.metricas;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.function.Supplier;
+
+@Configuration
+public class MetricasConfig {
+
+    //Hits, misses, evictions y tamaño de cada región del cache de segundo nivel (cache.* con la etiqueta cache=<región>)
+    @Bean
+    MeterBinder metricasRegionesCache(RegionesCache regionesCache){
+        return registry -> regionesCache.regiones()
+                .forEach((region, cache) -> CaffeineCacheMetrics.monitor(registry, cache, region));
+    }
+
+    //Agrega MetricasSesionHibernate a cada sesión que abre el EntityManagerFactory de este contexto, con sus medidores
+    @Bean
+    static BeanPostProcessor metricasSesionHibernate(ObjectProvider<MedidoresSesionHibernate> medidores){
+        Supplier<MedidoresSesionHibernate> medidoresContexto = SingletonSupplier.of(medidores::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String nombre) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean fabrica) {
+                    fabrica.setEntityManagerInitializer(entityManager -> entityManager.unwrap(Session.class)
+                            .addEventListeners(new MetricasSesionHibernate(medidoresContexto.get())));
+                }
+                return bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.leonardogarza.bootcamp.tasksService.metricas;
+
+import org.hibernate.SessionEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+//Cuenta sentencias, flushes y lecturas de cache de cada sesión de Hibernate y las publica al cerrarla.
+//Con open-in-view hay una sesión por petición, así que las métricas quedan por petición y se etiquetan con la ruta.
+//Se agrega una instancia a cada sesión (ver MetricasConfig), por eso los contadores no son concurrentes.
+public class MetricasSesionHibernate implements SessionEventListener {
+
+    private static final String SIN_RUTA = "none";
+
+    private final MedidoresSesionHibernate medidores;
+    private int sentencias;
+    private int flushes;
+    private int entidadesFlush;
+    private int cacheHits;
+    private int cacheMisses;
+    private long jdbcNanos;
+    private long inicioJdbc;
+
+    public MetricasSesionHibernate(MedidoresSesionHibernate medidores){
+        this.medidores = medidores;
+    }
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        sentencias++;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicioJdbc = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        jdbcNanos += System.nanoTime() - inicioJdbc;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicioJdbc = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcNanos += System.nanoTime() - inicioJdbc;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushes++;
+        entidadesFlush += numberOfEntities;
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        if (hit) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+    }
+
+    @Override
+    public void end() {
+        medidores.porRuta(rutaActual()).registrar(sentencias, flushes, entidadesFlush, cacheHits, cacheMisses, jdbcNanos);
+    }
+
+    //Patrón de la ruta (/tareas/{id}) para que la cardinalidad de las etiquetas quede acotada
+    private static String rutaActual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return SIN_RUTA;
+        }
+        Object patron = atributos.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return patron == null ? SIN_RUTA : patron.toString();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.leonardogarza.bootcamp.tasksService.metricas;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Acceso a los caches de Caffeine detrás de las regiones del cache de segundo nivel de Hibernate.
+@Component
+public class RegionesCache {
+
+    //Regiones declaradas en las entidades
+    public static final List<String> REGIONES = List.of("usuarios", "tareas");
+
+    private final EntityManagerFactory entityManagerFactory;
+    public RegionesCache(EntityManagerFactory entityManagerFactory){
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    //Vacío si el cache de segundo nivel está deshabilitado o no usa JCache
+    public Map<String, Cache<?, ?>> regiones() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Map<String, Cache<?, ?>> regiones = new LinkedHashMap<>();
+        if (sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory regionFactory) {
+            for (String region : REGIONES) {
+                javax.cache.Cache<Object, Object> cache = regionFactory.getCacheManager().getCache(region);
+                if (cache != null) {
+                    regiones.put(region, cache.unwrap(Cache.class));
+                }
+            }
+        }
+        return regiones;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.leonardogarza.bootcamp.tasksService.model;
+
+import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+//Estados de una tarea. En la base de datos se guarda el código (SMALLINT) y en el JSON la etiqueta en español.
+public enum EstadoTarea {
+
+    PENDIENTE((short) 0, Constantes.TAREA_ESTADO_PENDIENTE),
+    EN_PROGRESO((short) 1, Constantes.TAREA_ESTADO_EN_PROGRESO),
+    VENCIDA((short) 2, Constantes.TAREA_ESTADO_VENCIDA),
+    COMPLETADA((short) 3, Constantes.TAREA_ESTADO_COMPLETADA);
+
+    //Estados que pueden pasar a Vencida cuando se cumple la fecha límite
+    public static final Set<EstadoTarea> ACTIVOS = Collections.unmodifiableSet(EnumSet.of(PENDIENTE, EN_PROGRESO));
+
+    private final short codigo;
+    private final String etiqueta;
+
+    EstadoTarea(short codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    public short getCodigo() {
+        return codigo;
+    }
+
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    public boolean isActivo() {
+        return ACTIVOS.contains(this);
+    }
+
+    //Regresa null si la etiqueta no corresponde a un estado válido
+    public static EstadoTarea deEtiqueta(String etiqueta) {
+        if (etiqueta == null) {
+            return null;
+        }
+        return switch (etiqueta) {
+            case Constantes.TAREA_ESTADO_PENDIENTE -> PENDIENTE;
+            case Constantes.TAREA_ESTADO_EN_PROGRESO -> EN_PROGRESO;
+            case Constantes.TAREA_ESTADO_VENCIDA -> VENCIDA;
+            case Constantes.TAREA_ESTADO_COMPLETADA -> COMPLETADA;
+            default -> null;
+        };
+    }
+
+    public static EstadoTarea deCodigo(short codigo) {
+        return switch (codigo) {
+            case 0 -> PENDIENTE;
+            case 1 -> EN_PROGRESO;
+            case 2 -> VENCIDA;
+            case 3 -> COMPLETADA;
+            default -> throw new IllegalArgumentException("Código de estado inválido: " + codigo);
+        };
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.leonardogarza.bootcamp.tasksService.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+//Persiste EstadoTarea como su código numérico en lugar de un VARCHAR
+@Converter(autoApply = true)
+public class EstadoTareaConverter implements AttributeConverter<EstadoTarea, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(EstadoTarea estado) {
+        return estado == null ? null : estado.getCodigo();
+    }
+
+    @Override
+    public EstadoTarea convertToEntityAttribute(Short codigo) {
+        return codigo == null ? null : EstadoTarea.deCodigo(codigo);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.leonardogarza.bootcamp.tasksService.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+//Respuesta guardada de un POST con Idempotency-Key, solo se usa con idempotencia.persistir=true
+@Entity
+public class LlaveIdempotencia {
+
+    //Método, ruta y llave del cliente
+    @Id
+    @Column(length = 400)
+    private String clave;
+    //SHA-256 del cuerpo de la solicitud original, para detectar una llave reutilizada con otro cuerpo
+    @Column(length = 64)
+    private String huella;
+    private int status;
+    @Column(length = 2000)
+    private String location;
+    @Column(length = 2000)
+    private String cuerpo;
+    private Instant creada;
+
+    public LlaveIdempotencia() {
+    }
+
+    public LlaveIdempotencia(String clave, String huella, int status, String location, String cuerpo, Instant creada){
+        this.clave = clave;
+        this.huella = huella;
+        this.status = status;
+        this.location = location;
+        this.cuerpo = cuerpo;
+        this.creada = creada;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public String getHuella() {
+        return huella;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getCuerpo() {
+        return cuerpo;
+    }
+
+    public Instant getCreada() {
+        return creada;
+    }
+}
@@ -1,38 +1,55 @@
 package com.leonardogarza.bootcamp.tasksService.model;
 
-import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.Objects;
 
+//El índice (estado, fechaLimite) sirve al barrido de tareas vencidas, ver BarridoTareasVencidas.
+//El índice (usuario_id, id) sirve a las tareas por usuario paginadas por llave y a existsByUsuarioAsignadoId.
+//Los índices (usuario_id, estado, id) y (fechaLimite) cubren las demás combinaciones de filtros del listado.
+//Las tareas se guardan en el cache de segundo nivel, Hibernate lo invalida al actualizar o eliminar.
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_tarea_estado_fecha_limite", columnList = "estado, fechaLimite"),
+        @Index(name = "idx_tarea_usuario", columnList = "usuario_id, id"),
+        @Index(name = "idx_tarea_usuario_estado", columnList = "usuario_id, estado, id"),
+        @Index(name = "idx_tarea_fecha_limite", columnList = "fechaLimite")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tareas")
 public class Tarea {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tarea_seq")
+    @SequenceGenerator(name = "tarea_seq", sequenceName = "tarea_seq", allocationSize = 50)
     private Long id;
     private String titulo;
     private String descripcion;
-    private String estado;
+    //Se guarda como código SMALLINT, en el JSON se expone la etiqueta (ver getEstado/setEstado)
+    private EstadoTarea estado;
     private LocalDate fechaLimite;
-    //Ligamos usuarioAsignado como llave foranea a usuario_id
-    @ManyToOne
+    //Ligamos usuarioAsignado como llave foranea a usuario_id.
+    //Es LAZY para no disparar un select por tarea, los listados lo traen con join (ver TareaRepository).
+    //En la respuesta solo se serializa id y nombre del usuario.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id")
+    @JsonIgnoreProperties({"email", "version", "hibernateLazyInitializer", "handler"})
     private Usuario usuarioAsignado;
-
-    //Antes de insert y update validamos si la tarea ya venció para cambiar el estatus.
-    @PrePersist
-    @PreUpdate
-    public void validaTareasVencidas() {
-        if(!this.estado.equals(Constantes.TAREA_ESTADO_COMPLETADA) && this.fechaLimite != null && fechaLimite.isBefore(LocalDate.now()))
-            this.estado = Constantes.TAREA_ESTADO_VENCIDA;
-    }
+    //Versión para control de concurrencia optimista, se expone como ETag y se ignora si viene en el cuerpo
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 
     public Tarea() {
     }
 
-    public Tarea(String titulo, String descripcion, String estado, LocalDate fechaLimite, Usuario usuarioAsignado){
+    public Tarea(String titulo, String descripcion, EstadoTarea estado, LocalDate fechaLimite, Usuario usuarioAsignado){
         this.titulo = titulo;
         this.descripcion = descripcion;
         this.estado = estado;
@@ -40,6 +57,10 @@ public class Tarea {
         this.usuarioAsignado = usuarioAsignado;
     }
 
+    public Tarea(String titulo, String descripcion, String estado, LocalDate fechaLimite, Usuario usuarioAsignado){
+        this(titulo, descripcion, EstadoTarea.deEtiqueta(estado), fechaLimite, usuarioAsignado);
+    }
+
     public String getTitulo() {
         return titulo;
     }
@@ -65,10 +86,21 @@ public class Tarea {
     }
 
     public String getEstado() {
-        return estado;
+        return estado == null ? null : estado.getEtiqueta();
     }
 
+    //Una etiqueta desconocida deja el estado en null, los controladores lo rechazan como inválido
     public void setEstado(String estado) {
+        this.estado = EstadoTarea.deEtiqueta(estado);
+    }
+
+    @JsonIgnore
+    public EstadoTarea getEstadoTarea() {
+        return estado;
+    }
+
+    @JsonIgnore
+    public void setEstadoTarea(EstadoTarea estado) {
         this.estado = estado;
     }
 
@@ -80,6 +112,10 @@ public class Tarea {
         this.fechaLimite = fechaLimite;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Usuario getUsuarioAsignado() {
         return usuarioAsignado;
     }
@@ -88,24 +124,38 @@ public class Tarea {
         this.usuarioAsignado = usuarioAsignado;
     }
 
+    //Copia fuera del contexto de persistencia con otro estado, para responder sin modificar la entidad administrada
+    public Tarea conEstado(EstadoTarea estado) {
+        Tarea copia = new Tarea(titulo, descripcion, estado, fechaLimite, usuarioAsignado);
+        copia.id = id;
+        copia.version = version;
+        return copia;
+    }
+
+    //usuarioAsignado puede ser un proxy LAZY: equals, hashCode y toString solo usan su id, que se lee sin inicializarlo.
+    //instanceof y getters en lugar de getClass y campos para que también funcione si la tarea es un proxy.
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        Tarea tarea = (Tarea) o;
-        return Objects.equals(id, tarea.id) && Objects.equals(titulo, tarea.titulo) && Objects.equals(descripcion, tarea.descripcion)
-                && Objects.equals(estado, tarea.estado) && Objects.equals(fechaLimite, tarea.fechaLimite)
-                && Objects.equals(usuarioAsignado, tarea.usuarioAsignado);
+        if (this == o) return true;
+        if (!(o instanceof Tarea tarea)) return false;
+        return Objects.equals(getId(), tarea.getId()) && Objects.equals(getTitulo(), tarea.getTitulo())
+                && Objects.equals(getDescripcion(), tarea.getDescripcion()) && Objects.equals(getEstadoTarea(), tarea.getEstadoTarea())
+                && Objects.equals(getFechaLimite(), tarea.getFechaLimite()) && Objects.equals(idUsuarioAsignado(), tarea.idUsuarioAsignado());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, titulo, descripcion, estado, fechaLimite, usuarioAsignado.getNombre());
+        return Objects.hash(getId(), getTitulo(), getDescripcion(), getEstadoTarea(), getFechaLimite(), idUsuarioAsignado());
+    }
+
+    public Long idUsuarioAsignado() {
+        return getUsuarioAsignado() == null ? null : getUsuarioAsignado().getId();
     }
 
     @Override
     public String toString() {
-        return "Empleado{" + "id=" + id + ", titulo=" + titulo + ", descripcion=" + descripcion + ", estado=" + estado +
-                ", fechaLimite=" + fechaLimite + ", usuarioAsignado=" + usuarioAsignado.getNombre() + "+ '}'";
+        return "Tarea{" + "id=" + id + ", titulo=" + titulo + ", descripcion=" + descripcion + ", estado=" + estado +
+                ", fechaLimite=" + fechaLimite + ", usuarioAsignado=" + idUsuarioAsignado() + '}';
     }
 
 }
@@ -1,19 +1,28 @@
 package com.leonardogarza.bootcamp.tasksService.model;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.Id;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Objects;
 
+//Los usuarios casi no cambian: se guardan en el cache de segundo nivel, Hibernate lo invalida al actualizar o eliminar.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
 public class Usuario {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_seq", allocationSize = 50)
     private Long id;
     private String nombre;
     private String email;
+    //Versión para control de concurrencia optimista, se expone como ETag y se ignora si viene en el cuerpo
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 
     public Usuario () {
     }
@@ -47,21 +56,28 @@ public class Usuario {
         this.email = email;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    //Las tareas lo cargan LAZY, así que puede llegar un proxy de Hibernate (una subclase sin los campos llenos):
+    //se compara con instanceof y getters, que inicializan el proxy, en lugar de getClass y campos.
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        Usuario usuario = (Usuario) o;
-        return Objects.equals(id, usuario.id) && Objects.equals(nombre, usuario.nombre) && Objects.equals(email, usuario.email);
+        if (this == o) return true;
+        if (!(o instanceof Usuario usuario)) return false;
+        return Objects.equals(getId(), usuario.getId()) && Objects.equals(getNombre(), usuario.getNombre())
+                && Objects.equals(getEmail(), usuario.getEmail());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, nombre, email);
+        return Objects.hash(getId(), getNombre(), getEmail());
     }
 
     @Override
     public String toString() {
-        return "Empleado{" + "id=" + id + ", nombre=" + nombre + ", email=" + email + '}';
+        return "Usuario{" + "id=" + id + ", nombre=" + nombre + ", email=" + email + '}';
     }
 
 }
@@ -0,0 +1,87 @@
+package com.leonardogarza.bootcamp.tasksService.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+//UPDATE de una sola fila que toca solo las columnas indicadas e incrementa la versión.
+//Un UPDATE por HQL o Criteria vaciaría toda la región de la entidad en el cache de segundo nivel,
+//así que se ejecuta como SQL nativo sin espacios de consulta sincronizados y se desaloja solo esa entidad,
+//antes de ejecutar y otra vez después del commit para que ninguna lectura concurrente deje el valor anterior.
+class ActualizacionParcial {
+
+    //Espacio de consulta que no corresponde a ninguna tabla: evita que Hibernate invalide regiones completas
+    private static final String SIN_ESPACIOS = "actualizacion_parcial";
+
+    private final Class<?> entidad;
+    private final String tabla;
+    private final StringJoiner asignaciones = new StringJoiner(", ");
+    private final StringJoiner condiciones = new StringJoiner(" and ");
+    private final Map<String, Object> parametros = new LinkedHashMap<>();
+
+    ActualizacionParcial(Class<?> entidad, String tabla) {
+        this.entidad = entidad;
+        this.tabla = tabla;
+        asignaciones.add("version = version + 1");
+    }
+
+    //Los valores nulos se omiten: el campo no cambia
+    ActualizacionParcial set(String columna, Object valor) {
+        if (valor != null) {
+            asignaciones.add(columna + " = :" + columna);
+            parametros.put(columna, valor);
+        }
+        return this;
+    }
+
+    ActualizacionParcial donde(String condicion, String parametro, Object valor) {
+        condiciones.add(condicion);
+        parametros.put(parametro, valor);
+        return this;
+    }
+
+    //Regresa las filas afectadas (0 o 1), debe ejecutarse dentro de una transacción
+    int ejecutar(EntityManager entityManager, Long id) {
+        donde("id = :id", "id", id);
+        NativeQuery<?> query = preparar(entityManager, "update " + tabla + " set " + asignaciones + " where " + condiciones);
+        return desalojando(entityManager, id, query::executeUpdate);
+    }
+
+    //Igual que ejecutar pero en la misma sentencia lee las columnas indicadas como estaban antes del UPDATE
+    //(tabla OLD TABLE de H2). Regresa sus valores, o null si la fila no se actualizó.
+    Object[] ejecutarLeyendoAnterior(EntityManager entityManager, Long id, String columnas) {
+        donde("id = :id", "id", id);
+        NativeQuery<?> query = preparar(entityManager,
+                "select " + columnas + " from old table (update " + tabla + " set " + asignaciones + " where " + condiciones + ")");
+        List<?> filas = desalojando(entityManager, id, query::getResultList);
+        return filas.isEmpty() ? null : (Object[]) filas.get(0);
+    }
+
+    private NativeQuery<?> preparar(EntityManager entityManager, String sql) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(SIN_ESPACIOS);
+        parametros.forEach(query::setParameter);
+        return query;
+    }
+
+    private <T> T desalojando(EntityManager entityManager, Long id, Supplier<T> sentencia) {
+        jakarta.persistence.Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(entidad, id);
+        T resultado = sentencia.get();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.evict(entidad, id);
+            }
+        });
+        return resultado;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.leonardogarza.bootcamp.tasksService.repository;
+
+import com.leonardogarza.bootcamp.tasksService.model.LlaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface LlaveIdempotenciaRepository extends JpaRepository<LlaveIdempotencia, String> {
+
+    //Purga en un solo DELETE las llaves que ya pasaron su TTL
+    @Modifying
+    @Transactional
+    @Query("delete from LlaveIdempotencia l where l.creada < :limite")
+    int purgarAnteriores(Instant limite);
+}
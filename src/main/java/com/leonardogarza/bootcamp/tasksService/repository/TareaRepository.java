@@ -1,10 +1,96 @@
 package com.leonardogarza.bootcamp.tasksService.repository;
 
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
 import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface TareaRepository extends JpaRepository<Tarea, Long> {
+public interface TareaRepository extends JpaRepository<Tarea, Long>, TareaRepositoryCustom {
     boolean existsByUsuarioAsignadoId(Long usuarioId);
+
+    //Paginación por llave: siguiente página a partir del último id entregado, con el usuario en el mismo select
+    @Query("select t from Tarea t left join fetch t.usuarioAsignado where t.id > :id order by t.id")
+    List<Tarea> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Recorrido completo para la exportación: cursor JDBC con fetch size, sin pasar por la cache de segundo nivel
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Tarea t left join fetch t.usuarioAsignado order by t.id")
+    Stream<Tarea> streamAll();
+
+    //Solo id y textos, para reconstruir el índice de búsqueda sin cargar entidades
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select t.id as id, t.titulo as titulo, t.descripcion as descripcion from Tarea t")
+    Stream<TextoTarea> streamTextos();
+
+    interface TextoTarea {
+        Long getId();
+        String getTitulo();
+        String getDescripcion();
+    }
+
+    @Query("select t from Tarea t left join fetch t.usuarioAsignado where t.id in :ids")
+    List<Tarea> findByIdIn(Collection<Long> ids);
+
+    //Tareas de un usuario paginadas por llave, resueltas con el índice (usuario_id, id)
+    @Query("select t from Tarea t left join fetch t.usuarioAsignado where t.usuarioAsignado.id = :usuarioId and t.id > :id order by t.id")
+    List<Tarea> findByUsuario(Long usuarioId, Long id, Limit limit);
+
+    @Query("select t from Tarea t left join fetch t.usuarioAsignado where t.usuarioAsignado.id = :usuarioId and t.estado = :estado and t.id > :id order by t.id")
+    List<Tarea> findByUsuarioAndEstado(Long usuarioId, EstadoTarea estado, Long id, Limit limit);
+
+    long countByUsuarioAsignadoId(Long usuarioId);
+
+    long countByUsuarioAsignadoIdAndEstado(Long usuarioId, EstadoTarea estado);
+
+    //Tareas activas cuya fecha límite ya pasó, resuelto con el índice (estado, fechaLimite). Las filas quedan bloqueadas
+    //hasta el UPDATE para que el estado y usuario leídos sean los que tenían al moverlas a Vencida.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id as id, t.estado as estado, t.usuarioAsignado.id as usuarioId from Tarea t where t.estado in :estadosActivos and t.fechaLimite < :hoy")
+    List<EstadoUsuarioTarea> findVencidas(Collection<EstadoTarea> estadosActivos, LocalDate hoy, Limit limit);
+
+    @Query("select t.id from Tarea t where t.id in :ids and t.estado = :estado")
+    List<Long> findIdsByIdInAndEstado(Collection<Long> ids, EstadoTarea estado);
+
+    //Número de tareas por estado y usuario, para reconciliar los contadores de estadísticas
+    @Query("select t.estado as estado, t.usuarioAsignado.id as usuarioId, count(t) as total from Tarea t group by t.estado, t.usuarioAsignado.id")
+    List<ConteoEstadoUsuario> contarPorEstadoYUsuario();
+
+    interface ConteoEstadoUsuario {
+        EstadoTarea getEstado();
+        Long getUsuarioId();
+        long getTotal();
+    }
+
+    @Query("select t.id as id, t.estado as estado, t.usuarioAsignado.id as usuarioId from Tarea t where t.id in :ids")
+    List<EstadoUsuarioTarea> findEstadosByIdIn(Collection<Long> ids);
+
+    interface EstadoUsuarioTarea {
+        Long getId();
+        EstadoTarea getEstado();
+        Long getUsuarioId();
+    }
+
+    //Mueve a Vencida un lote de tareas en un solo UPDATE, repitiendo la condición por si cambiaron desde la consulta.
+    //Es versioned para que incremente la versión y cambie el ETag de las tareas movidas.
+    @Modifying
+    @Query("update versioned Tarea t set t.estado = :vencida where t.id in :ids and t.estado in :estadosActivos and t.fechaLimite < :hoy")
+    int marcarVencidas(Collection<Long> ids, Collection<EstadoTarea> estadosActivos, LocalDate hoy, EstadoTarea vencida);
 }
@@ -0,0 +1,27 @@
+package com.leonardogarza.bootcamp.tasksService.repository;
+
+import com.leonardogarza.bootcamp.tasksService.dto.CambiosTarea;
+import com.leonardogarza.bootcamp.tasksService.dto.FiltroTareas;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+public interface TareaRepositoryCustom {
+
+    record EstadoAnterior(EstadoTarea estado, Long usuarioId) {
+    }
+
+    //Actualiza solo los campos presentes en un único UPDATE. Si se pasan versiones, solo actualiza cuando
+    //coinciden la versión de la tarea y la del usuario asignado (las que forman el ETag).
+    //Regresa el estado y usuario que tenía la tarea, o null si no se actualizó.
+    EstadoAnterior actualizarParcial(Long id, CambiosTarea cambios, EstadoTarea estado, Long version, Long versionUsuario);
+
+    //Regresa el estado y usuario que tenía la tarea eliminada, o null si no existía
+    EstadoAnterior eliminar(Long id);
+
+    //Página por llave de las tareas que cumplen todos los filtros presentes, con el usuario en el mismo select
+    List<Tarea> filtrar(FiltroTareas filtro, long despuesDe, Limit limit);
+
+}
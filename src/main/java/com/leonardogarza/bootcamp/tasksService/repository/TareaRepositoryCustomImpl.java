@@ -0,0 +1,89 @@
+package com.leonardogarza.bootcamp.tasksService.repository;
+
+import com.leonardogarza.bootcamp.tasksService.dto.CambiosTarea;
+import com.leonardogarza.bootcamp.tasksService.dto.FiltroTareas;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TareaRepositoryCustomImpl implements TareaRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    TareaRepositoryCustomImpl(EntityManager entityManager){
+        this.entityManager = entityManager;
+    }
+
+    //El usuario no se busca antes: si no existe, la llave foránea rechaza el UPDATE.
+    //El estado y usuario anteriores salen de la misma sentencia, sin leer antes la tarea.
+    @Override
+    @Transactional
+    public EstadoAnterior actualizarParcial(Long id, CambiosTarea cambios, EstadoTarea estado, Long version, Long versionUsuario) {
+        ActualizacionParcial actualizacion = new ActualizacionParcial(Tarea.class, "tarea")
+                .set("titulo", cambios.titulo())
+                .set("descripcion", cambios.descripcion())
+                .set("estado", estado == null ? null : estado.getCodigo())
+                .set("fecha_limite", cambios.fechaLimite())
+                .set("usuario_id", cambios.usuarioId());
+        if (version != null) {
+            actualizacion.donde("version = :version", "version", version)
+                    .donde("(select u.version from usuario u where u.id = tarea.usuario_id) = :versionUsuario", "versionUsuario", versionUsuario);
+        }
+        Object[] anterior = actualizacion.ejecutarLeyendoAnterior(entityManager, id, "estado, usuario_id");
+        if (anterior == null) {
+            return null;
+        }
+        return new EstadoAnterior(EstadoTarea.deCodigo(((Number) anterior[0]).shortValue()),
+                anterior[1] == null ? null : ((Number) anterior[1]).longValue());
+    }
+
+    @Override
+    @Transactional
+    public EstadoAnterior eliminar(Long id) {
+        Tarea tarea = entityManager.find(Tarea.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (tarea == null) {
+            return null;
+        }
+        EstadoAnterior anterior = new EstadoAnterior(tarea.getEstadoTarea(), tarea.idUsuarioAsignado());
+        entityManager.remove(tarea);
+        return anterior;
+    }
+
+    //Los predicados se agregan solo para los filtros presentes; cada combinación tiene un índice compuesto en Tarea
+    @Override
+    public List<Tarea> filtrar(FiltroTareas filtro, long despuesDe, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tarea> query = cb.createQuery(Tarea.class);
+        Root<Tarea> tarea = query.from(Tarea.class);
+        tarea.fetch("usuarioAsignado", JoinType.LEFT);
+
+        List<Predicate> condiciones = new ArrayList<>();
+        if (filtro.usuarioId() != null) {
+            condiciones.add(cb.equal(tarea.get("usuarioAsignado").get("id"), filtro.usuarioId()));
+        }
+        if (filtro.estado() != null) {
+            condiciones.add(cb.equal(tarea.get("estado"), filtro.estado()));
+        }
+        if (filtro.venceAntes() != null) {
+            condiciones.add(cb.lessThan(tarea.get("fechaLimite"), filtro.venceAntes()));
+        }
+        if (filtro.venceDespues() != null) {
+            condiciones.add(cb.greaterThan(tarea.get("fechaLimite"), filtro.venceDespues()));
+        }
+        //En la primera página no se agrega la condición sobre el id: con ella H2 prefiere recorrer la llave primaria
+        //en lugar del índice de fechaLimite cuando solo se filtra por fechas
+        if (despuesDe > 0) {
+            condiciones.add(cb.greaterThan(tarea.get("id"), despuesDe));
+        }
+        query.where(condiciones.toArray(Predicate[]::new)).orderBy(cb.asc(tarea.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit.max()).getResultList();
+    }
+
+}
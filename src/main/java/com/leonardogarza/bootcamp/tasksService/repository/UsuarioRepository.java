@@ -1,9 +1,20 @@
 package com.leonardogarza.bootcamp.tasksService.repository;
 
 import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryCustom {
+
+    //Paginación por llave: siguiente página a partir del último id entregado
+    List<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Solo los ids, para validar referencias a usuarios sin cargar las entidades
+    @Query("select u.id from Usuario u")
+    List<Long> findAllIds();
 }
@@ -0,0 +1,10 @@
+package com.leonardogarza.bootcamp.tasksService.repository;
+
+import com.leonardogarza.bootcamp.tasksService.dto.CambiosUsuario;
+
+public interface UsuarioRepositoryCustom {
+
+    //Actualiza solo los campos presentes en un único UPDATE, condicionado a la versión si se pasa. Regresa las filas afectadas.
+    int actualizarParcial(Long id, CambiosUsuario cambios, Long version);
+
+}
@@ -0,0 +1,28 @@
+package com.leonardogarza.bootcamp.tasksService.repository;
+
+import com.leonardogarza.bootcamp.tasksService.dto.CambiosUsuario;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+class UsuarioRepositoryCustomImpl implements UsuarioRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    UsuarioRepositoryCustomImpl(EntityManager entityManager){
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int actualizarParcial(Long id, CambiosUsuario cambios, Long version) {
+        ActualizacionParcial actualizacion = new ActualizacionParcial(Usuario.class, "usuario")
+                .set("nombre", cambios.nombre())
+                .set("email", cambios.email());
+        if (version != null) {
+            actualizacion.donde("version = :version", "version", version);
+        }
+        return actualizacion.ejecutar(entityManager, id);
+    }
+
+}
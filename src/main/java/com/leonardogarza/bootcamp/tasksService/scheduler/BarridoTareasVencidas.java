@@ -0,0 +1,130 @@
+package com.leonardogarza.bootcamp.tasksService.scheduler;
+
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Barrido periódico que mueve a Vencida las tareas activas cuya fecha límite ya pasó.
+//Trabaja por lotes de UPDATEs sobre conjuntos de ids, cada lote en su propia transacción,
+//y limita el número de lotes por ejecución para no acaparar la base de datos.
+@Component
+public class BarridoTareasVencidas {
+
+    private static final Logger log = LoggerFactory.getLogger(BarridoTareasVencidas.class);
+
+    private final TareaRepository tareaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final int maxLotes;
+    private final ApplicationEventPublisher eventos;
+
+    private final Counter contadorMovidas;
+    private final Timer duracionBarrido;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean(false);
+    private final AtomicLong totalMovidas = new AtomicLong();
+    private volatile int ultimasMovidas;
+    private volatile long ultimaDuracionMs;
+
+    public BarridoTareasVencidas(TareaRepository tareaRepository, TransactionTemplate transactionTemplate,
+                                 @Value("${tareas.vencidas.tamano-lote:500}") int tamanoLote,
+                                 @Value("${tareas.vencidas.max-lotes:20}") int maxLotes,
+                                 MeterRegistry meterRegistry, ApplicationEventPublisher eventos){
+        this.tareaRepository = tareaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanoLote = tamanoLote;
+        this.maxLotes = maxLotes;
+        this.eventos = eventos;
+        this.contadorMovidas = meterRegistry.counter("tareas.vencidas.movidas");
+        this.duracionBarrido = meterRegistry.timer("tareas.vencidas.barrido");
+    }
+
+    //Primer barrido en cuanto la aplicación está lista (después de la carga inicial), luego cada intervalo.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${tareas.vencidas.intervalo-ms:60000}", initialDelayString = "${tareas.vencidas.intervalo-ms:60000}")
+    public void programado() {
+        barrer(LocalDate.now());
+    }
+
+    //Regresa el número de tareas movidas a Vencida, 0 si ya hay un barrido en curso.
+    public int barrer(LocalDate hoy) {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long inicio = System.nanoTime();
+            int movidas = 0;
+            int lotes = 0;
+            int movidasLote;
+            do {
+                List<TareaRepository.EstadoUsuarioTarea> tareasMovidas = transactionTemplate.execute(status -> {
+                    List<TareaRepository.EstadoUsuarioTarea> vencidas = tareaRepository.findVencidas(EstadoTarea.ACTIVOS, hoy, Limit.of(tamanoLote));
+                    if (vencidas.isEmpty()) {
+                        return vencidas;
+                    }
+                    List<Long> ids = vencidas.stream().map(TareaRepository.EstadoUsuarioTarea::getId).toList();
+                    int filas = tareaRepository.marcarVencidas(ids, EstadoTarea.ACTIVOS, hoy, EstadoTarea.VENCIDA);
+                    if (filas == ids.size()) {
+                        return vencidas;
+                    }
+                    //Si alguna cambió entre la consulta y el UPDATE se vuelve a leer cuáles quedaron en Vencida
+                    Set<Long> enVencida = new HashSet<>(tareaRepository.findIdsByIdInAndEstado(ids, EstadoTarea.VENCIDA));
+                    return vencidas.stream().filter(tarea -> enVencida.contains(tarea.getId())).toList();
+                });
+                tareasMovidas.forEach(tarea -> eventos.publishEvent(
+                        TareaEvento.cambioDeEstado(tarea.getId(), EstadoTarea.VENCIDA, tarea.getEstado(), tarea.getUsuarioId())));
+                movidasLote = tareasMovidas.size();
+                movidas += movidasLote;
+                lotes++;
+            } while (movidasLote > 0 && lotes < maxLotes);
+
+            long duracion = System.nanoTime() - inicio;
+            ultimasMovidas = movidas;
+            ultimaDuracionMs = duracion / 1_000_000;
+            totalMovidas.addAndGet(movidas);
+            contadorMovidas.increment(movidas);
+            duracionBarrido.record(duracion, TimeUnit.NANOSECONDS);
+            if (movidas > 0) {
+                log.info("Barrido de tareas vencidas: {} tareas movidas a {} en {} lotes, {} ms",
+                        movidas, EstadoTarea.VENCIDA.getEtiqueta(), lotes, ultimaDuracionMs);
+            }
+            return movidas;
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    public long getTotalMovidas() {
+        return totalMovidas.get();
+    }
+
+    public int getUltimasMovidas() {
+        return ultimasMovidas;
+    }
+
+    public long getUltimaDuracionMs() {
+        return ultimaDuracionMs;
+    }
+
+}
@@ -19,4 +19,13 @@ public class Constantes {
             TAREA_ESTADO_COMPLETADA
     );
 
+    //Paginación por llave (keyset) de los listados
+    public static final int PAGINA_TAMANO_DEFAULT = 100;
+    public static final int PAGINA_TAMANO_MAXIMO = 1000;
+    public static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+    public static final String HEADER_TOTAL = "X-Total-Count";
+
+    //Máximo de elementos por carga en los endpoints /batch
+    public static final int LOTE_TAMANO_MAXIMO = 5000;
+
 }
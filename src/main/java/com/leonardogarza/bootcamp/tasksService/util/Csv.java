@@ -0,0 +1,43 @@
+package com.leonardogarza.bootcamp.tasksService.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Separa una línea CSV en campos. Acepta campos entre comillas con comas y comillas dobles escapadas ("").
+//No soporta saltos de línea dentro de un campo. Lanza IllegalArgumentException si las comillas no cierran.
+public class Csv {
+
+    private Csv() {}
+
+    public static List<String> campos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+}
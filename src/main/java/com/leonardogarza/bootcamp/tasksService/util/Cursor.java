@@ -0,0 +1,30 @@
+package com.leonardogarza.bootcamp.tasksService.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Cursor opaco para la paginación por llave (keyset): codifica el último id entregado.
+public class Cursor {
+
+    private static final String PREFIJO = "id:";
+
+    private Cursor() {}
+
+    public static String codificar(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIJO + ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Regresa el id contenido en el cursor, 0 si no hay cursor. Lanza IllegalArgumentException si el cursor es inválido.
+    public static long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!valor.startsWith(PREFIJO)) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return Long.parseLong(valor.substring(PREFIJO.length()));
+    }
+
+}
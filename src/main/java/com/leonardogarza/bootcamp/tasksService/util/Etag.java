@@ -0,0 +1,57 @@
+package com.leonardogarza.bootcamp.tasksService.util;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+//ETags construidos a partir de las versiones de las entidades y comparación contra If-None-Match / If-Match.
+public class Etag {
+
+    private static final String DEBIL = "W/";
+
+    private Etag() {}
+
+    public static String de(Object... versiones) {
+        StringJoiner etag = new StringJoiner(".", "\"", "\"");
+        for (Object version : versiones) {
+            etag.add(String.valueOf(version));
+        }
+        return etag.toString();
+    }
+
+    //If-None-Match usa comparación débil: se ignora el prefijo W/
+    public static boolean coincideDebil(String encabezado, String etag) {
+        return encabezado != null && Arrays.stream(encabezado.split(","))
+                .map(String::trim)
+                .anyMatch(valor -> valor.equals("*") || quitarDebil(valor).equals(quitarDebil(etag)));
+    }
+
+    //If-Match usa comparación fuerte: un ETag débil nunca coincide
+    public static boolean coincideFuerte(String encabezado, String etag) {
+        return encabezado != null && Arrays.stream(encabezado.split(","))
+                .map(String::trim)
+                .anyMatch(valor -> valor.equals("*") || (!valor.startsWith(DEBIL) && valor.equals(etag)));
+    }
+
+    //Versiones contenidas en un ETag fuerte construido con de(...), null si el valor no tiene ese formato
+    public static long[] versiones(String etag) {
+        String valor = etag.trim();
+        if (valor.length() < 2 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+            return null;
+        }
+        String[] partes = valor.substring(1, valor.length() - 1).split("\\.");
+        long[] versiones = new long[partes.length];
+        try {
+            for (int i = 0; i < partes.length; i++) {
+                versiones[i] = Long.parseLong(partes[i]);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return versiones;
+    }
+
+    private static String quitarDebil(String valor) {
+        return valor.startsWith(DEBIL) ? valor.substring(DEBIL.length()) : valor;
+    }
+
+}
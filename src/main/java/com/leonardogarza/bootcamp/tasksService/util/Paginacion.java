@@ -0,0 +1,49 @@
+package com.leonardogarza.bootcamp.tasksService.util;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+//Utilerías para responder listados paginados por llave (keyset) sobre el id.
+public class Paginacion {
+
+    private Paginacion() {}
+
+    //Valida el tamaño de página solicitado, lanza IllegalArgumentException si no es positivo.
+    public static int tamano(Integer size) {
+        if (size == null) {
+            return Constantes.PAGINA_TAMANO_DEFAULT;
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(size, Constantes.PAGINA_TAMANO_MAXIMO);
+    }
+
+    //Se pide un registro extra para saber si existe una página siguiente sin hacer un count.
+    public static Limit limite(int tamano) {
+        return Limit.of(tamano + 1);
+    }
+
+    //Recorta el registro extra y agrega el cursor de la siguiente página en los headers X-Next-Cursor y Link.
+    public static <T> ResponseEntity<List<T>> respuesta(List<T> filas, int tamano, Function<T, Long> id) {
+        if (filas.size() <= tamano) {
+            return ResponseEntity.ok(filas);
+        }
+        List<T> pagina = filas.subList(0, tamano);
+        String cursor = Cursor.codificar(id.apply(pagina.get(tamano - 1)));
+        String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", cursor)
+                .replaceQueryParam("size", tamano)
+                .build().toUriString();
+        return ResponseEntity.ok()
+                .header(Constantes.HEADER_SIGUIENTE_CURSOR, cursor)
+                .header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"")
+                .body(pagina);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.leonardogarza.bootcamp.tasksService.admision.LimiteAdaptativo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "admision.header-cliente=X-Client-Id",
+        "admision.escritura.tasa=0.1",
+        "admision.escritura.rafaga=3"})
+public class AdmisionTests {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    // Valida que al acabarse el presupuesto de escrituras de un cliente se responda 429 con Retry-After sin afectar lecturas ni a otros clientes
+    @Test
+    void shouldRejectWritesOverTheClientBudget() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(eliminar("cliente-a").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        }
+        ResponseEntity<String> rechazada = eliminar("cliente-a");
+        assertThat(rechazada.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(Long.parseLong(rechazada.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(1L, 10L);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Client-Id", "cliente-a");
+        assertThat(restTemplate.exchange("/tareas", HttpMethod.GET, new HttpEntity<>(headers), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(eliminar("cliente-b").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        assertThat(restTemplate.getForEntity("/actuator/metrics/admision.solicitudes?tag=tipo:escritura&tag=resultado:limite_cliente",
+                String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/actuator/metrics/admision.concurrencia.limite?tag=tipo:lectura",
+                String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    // Valida que el límite de concurrencia rechace al llenarse, baje cuando sube la latencia y vuelva a subir cuando se normaliza
+    @Test
+    void shouldAdaptConcurrencyLimitToLatency() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 10, 2.0, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limite.adquirir()).isTrue();
+        }
+        assertThat(limite.adquirir()).isFalse();
+        for (int i = 0; i < 4; i++) {
+            limite.liberar(1_000_000);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(limite.adquirir()).isTrue();
+            limite.liberar(50_000_000);
+        }
+        assertThat(limite.limite()).isLessThan(4);
+
+        int reducido = limite.limite();
+        for (int i = 0; i < 2000; i++) {
+            int adquiridos = 0;
+            while (limite.adquirir()) {
+                adquiridos++;
+            }
+            for (int j = 0; j < adquiridos; j++) {
+                limite.liberar(50_000_000);
+            }
+        }
+        assertThat(limite.limite()).isGreaterThan(reducido);
+        assertThat(limite.enCurso()).isZero();
+    }
+
+    private ResponseEntity<String> eliminar(String cliente) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Client-Id", cliente);
+        return restTemplate.exchange("/tareas/99999", HttpMethod.DELETE, new HttpEntity<>(headers), String.class);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CacheControllerTests {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    // Valida que las lecturas repetidas por id se resuelvan desde el cache
+    @Test
+    @DirtiesContext
+    void shouldServeRepeatedReadsFromCache() {
+        //La primera lectura puede ser un miss si un barrido invalidó la región
+        restTemplate.getForEntity("/usuarios/2", String.class);
+        restTemplate.getForEntity("/tareas/2", String.class);
+        long hitsUsuarios = hits("usuarios");
+        long hitsTareas = hits("tareas");
+
+        restTemplate.getForEntity("/usuarios/2", String.class);
+        restTemplate.getForEntity("/usuarios/2", String.class);
+        restTemplate.getForEntity("/tareas/2", String.class);
+        restTemplate.getForEntity("/tareas/2", String.class);
+
+        assertThat(hits("usuarios")).isGreaterThanOrEqualTo(hitsUsuarios + 2);
+        assertThat(hits("tareas")).isGreaterThanOrEqualTo(hitsTareas + 2);
+    }
+
+    // Valida que la actualización invalide el valor en cache
+    @Test
+    @DirtiesContext
+    void shouldNotServeStaleUsuarioAfterUpdate() {
+        restTemplate.getForEntity("/usuarios/1", String.class);
+
+        HttpEntity<Usuario> request = new HttpEntity<>(new Usuario("Leonardo Garza", "leoG@hotmail.com"));
+        ResponseEntity<Void> response = restTemplate.exchange("/usuarios/1", HttpMethod.PUT, request, Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        String nombre = JsonPath.parse(restTemplate.getForEntity("/usuarios/1", String.class).getBody()).read("$.nombre");
+        assertThat(nombre).isEqualTo("Leonardo Garza");
+    }
+
+    private long hits(String region) {
+        ResponseEntity<String> response = restTemplate.getForEntity("/cache", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray hits = documentContext.read("$[?(@.region == '" + region + "')].hits");
+        assertThat(hits).hasSize(1);
+        return ((Number) hits.get(0)).longValue();
+    }
+
+}
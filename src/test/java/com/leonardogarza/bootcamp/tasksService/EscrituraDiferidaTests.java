@@ -0,0 +1,103 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.jayway.jsonpath.JsonPath;
+import com.leonardogarza.bootcamp.tasksService.escritura.EscrituraDiferida;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//El intervalo es largo para que los cambios solo se guarden cuando la prueba llama a vaciar()
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "tareas.escritura-diferida.habilitada=true",
+        "tareas.escritura-diferida.max-pendientes=2",
+        "tareas.escritura-diferida.intervalo-ms=3600000"})
+public class EscrituraDiferidaTests {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    EscrituraDiferida escrituraDiferida;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void vaciar() {
+        escrituraDiferida.vaciar();
+    }
+
+    // Valida que los cambios de estado se acepten con 202, se lean de inmediato y se guarden juntos en una sola actualización
+    @Test
+    void shouldAcceptCoalesceAndFlushStateChanges() {
+        long versionAntes = jdbcTemplate.queryForObject("select version from tarea where id = 1", Long.class);
+        int estadoAntes = jdbcTemplate.queryForObject("select estado from tarea where id = 1", Integer.class);
+
+        assertThat(cambiarEstado(1, "En progreso").getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(cambiarEstado(1, "Completada").getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        //Todavía no está en la base, pero la consulta por id regresa lo que se escribió (sin ETag)
+        assertThat(jdbcTemplate.queryForObject("select estado from tarea where id = 1", Integer.class)).isEqualTo(estadoAntes);
+        ResponseEntity<String> leida = restTemplate.getForEntity("/tareas/1", String.class);
+        assertThat(JsonPath.parse(leida.getBody()).read("$.estado", String.class)).isEqualTo("Completada");
+        assertThat(leida.getHeaders().getETag()).isNull();
+
+        assertThat(escrituraDiferida.vaciar()).isEqualTo(1);
+        assertThat(escrituraDiferida.pendiente(1L)).isNull();
+        assertThat(jdbcTemplate.queryForObject("select version from tarea where id = 1", Long.class)).isEqualTo(versionAntes + 1);
+        ResponseEntity<String> guardada = restTemplate.getForEntity("/tareas/1", String.class);
+        assertThat(JsonPath.parse(guardada.getBody()).read("$.estado", String.class)).isEqualTo("Completada");
+        assertThat(guardada.getHeaders().getETag()).isNotNull();
+        Number completadas = JsonPath.parse(restTemplate.getForEntity("/tareas/stats", String.class).getBody()).read("$.porEstado.Completada");
+        assertThat(completadas.longValue()).isEqualTo(jdbcTemplate.queryForObject("select count(*) from tarea where estado = 3", Long.class));
+    }
+
+    // Valida que con el máximo de tareas pendientes se rechacen cambios a otras tareas con 503 y se sigan juntando los de las pendientes
+    @Test
+    void shouldRejectNewTasksWhenPendingLimitIsReached() {
+        assertThat(cambiarEstado(1, "En progreso").getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(cambiarEstado(2, "En progreso").getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        ResponseEntity<String> rechazada = cambiarEstado(3, "En progreso");
+        assertThat(rechazada.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rechazada.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(cambiarEstado(2, "Pendiente").getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        escrituraDiferida.vaciar();
+        assertThat(cambiarEstado(3, "En progreso").getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(cambiarEstado(999, "En progreso").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    // Valida que una escritura síncrona sobre la tarea guarde antes su cambio de estado pendiente
+    @Test
+    void shouldApplyPendingStateBeforeSynchronousWrites() {
+        assertThat(cambiarEstado(2, "Vencida").getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        ResponseEntity<Void> response = restTemplate.exchange("/tareas/2", HttpMethod.PATCH,
+                new HttpEntity<>("{\"titulo\":\"Titulo nuevo\"}", headers), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(escrituraDiferida.pendiente(2L)).isNull();
+        assertThat(jdbcTemplate.queryForObject("select titulo from tarea where id = 2", String.class)).isEqualTo("Titulo nuevo");
+        assertThat(jdbcTemplate.queryForObject("select estado from tarea where id = 2", Integer.class)).isEqualTo(2);
+    }
+
+    private ResponseEntity<String> cambiarEstado(long id, String estado) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        return restTemplate.exchange("/tareas/" + id, HttpMethod.PATCH, new HttpEntity<>("{\"estado\":\"" + estado + "\"}", headers), String.class);
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.leonardogarza.bootcamp.tasksService.feed.FeedTareas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//El intervalo es largo para que los cambios solo se envíen cuando la prueba llama a despachar()
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "tareas.stream.intervalo-ms=3600000")
+public class FeedTareasTests {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    FeedTareas feedTareas;
+
+    // Valida que con cambios intercalados de dos tareas los ids de evento lleguen en orden creciente
+    // y que al reanudar con Last-Event-ID no se pierda ninguno
+    @Test
+    void shouldSendEventIdsInOrderAndResumeWithoutLosingChanges() throws Exception {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        BlockingQueue<String> lineas = new LinkedBlockingQueue<>();
+        CompletableFuture<Void> feed = suscribir(httpClient, null, lineas);
+
+        cambiarEstado(1, "En progreso");
+        cambiarEstado(2, "En progreso");
+        cambiarEstado(1, "Completada");
+        feedTareas.despachar();
+
+        List<Long> ids = new ArrayList<>();
+        List<String> datos = new ArrayList<>();
+        leer(lineas, 2, ids, datos);
+        feed.cancel(true);
+        assertThat(ids).hasSize(2).isSorted();
+        assertThat(datos.get(0)).contains("\"id\":2,");
+        assertThat(datos.get(1)).contains("\"id\":1,").contains("\"Completada\"");
+
+        //Un cliente que se desconectó después del primer evento recibe el cambio de la otra tarea al reanudar
+        BlockingQueue<String> reanudadas = new LinkedBlockingQueue<>();
+        CompletableFuture<Void> reanudado = suscribir(httpClient, String.valueOf(ids.get(0)), reanudadas);
+        feedTareas.despachar();
+        List<Long> idsReanudado = new ArrayList<>();
+        List<String> datosReanudado = new ArrayList<>();
+        leer(reanudadas, 1, idsReanudado, datosReanudado);
+        reanudado.cancel(true);
+        assertThat(idsReanudado).containsExactly(ids.get(1));
+        assertThat(datosReanudado.get(0)).contains("\"id\":1,").contains("\"Completada\"");
+    }
+
+    // Valida que un suscriptor filtrado por estado reciba el cambio de una tarea que sale de ese estado
+    @Test
+    void shouldNotifyTareaLeavingTheFilteredEstado() throws Exception {
+        cambiarEstado(2, "En progreso");
+
+        BlockingQueue<String> lineas = new LinkedBlockingQueue<>();
+        CompletableFuture<Void> feed = suscribir(HttpClient.newHttpClient(), "?estado=En%20progreso", null, lineas);
+        cambiarEstado(2, "Pendiente");
+        feedTareas.despachar();
+
+        List<Long> ids = new ArrayList<>();
+        List<String> datos = new ArrayList<>();
+        leer(lineas, 1, ids, datos);
+        feed.cancel(true);
+        assertThat(datos).hasSize(1);
+        assertThat(datos.get(0)).contains("\"id\":2,").contains("\"Pendiente\"");
+    }
+
+    private CompletableFuture<Void> suscribir(HttpClient httpClient, String ultimoId, BlockingQueue<String> lineas) throws InterruptedException {
+        return suscribir(httpClient, "", ultimoId, lineas);
+    }
+
+    private CompletableFuture<Void> suscribir(HttpClient httpClient, String filtros, String ultimoId, BlockingQueue<String> lineas) throws InterruptedException {
+        int antes = feedTareas.suscriptores();
+        HttpRequest.Builder solicitud = HttpRequest.newBuilder(URI.create(restTemplate.getRootUri() + "/tareas/stream" + filtros));
+        if (ultimoId != null) {
+            solicitud.header("Last-Event-ID", ultimoId);
+        }
+        CompletableFuture<Void> feed = httpClient.sendAsync(solicitud.build(), HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(respuesta -> respuesta.body().forEach(lineas::add));
+        long limite = System.currentTimeMillis() + 10_000;
+        while (feedTareas.suscriptores() == antes && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        return feed;
+    }
+
+    private void leer(BlockingQueue<String> lineas, int eventos, List<Long> ids, List<String> datos) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (datos.size() < eventos && System.currentTimeMillis() < limite) {
+            String linea = lineas.poll(200, TimeUnit.MILLISECONDS);
+            if (linea != null && linea.startsWith("id:")) {
+                ids.add(Long.parseLong(linea.substring(3).trim()));
+            } else if (linea != null && linea.startsWith("data:")) {
+                datos.add(linea);
+            }
+        }
+    }
+
+    private void cambiarEstado(long id, String estado) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        assertThat(restTemplate.exchange("/tareas/" + id, HttpMethod.PATCH, new HttpEntity<>("{\"estado\":\"" + estado + "\"}", headers),
+                Void.class).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.jayway.jsonpath.JsonPath;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import com.leonardogarza.bootcamp.tasksService.util.Cursor;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.leonardogarza.bootcamp.tasksService.SentenciasSql")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FiltroTareasTests {
+
+    private static final LocalDate INICIO = LocalDate.of(2027, 1, 1);
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void cargarTareas() {
+        List<Tarea> tareas = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setId((long) (i % 4) + 1);
+            tareas.add(new Tarea("Tarea " + i, "Descripcion " + i, Constantes.ESTADOS_VALIDOS.get(i % 3),
+                    INICIO.plusDays(i % 365), usuario));
+        }
+        restTemplate.postForEntity("/tareas/batch", tareas, String.class);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    //Ejecuta la ruta, toma el SQL que generó Hibernate, sustituye los parámetros en orden y revisa el plan de H2
+    private String plan(String ruta, Object... valores) {
+        SentenciasSql.limpiar();
+        assertThat(restTemplate.getForEntity(ruta, String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        String sql = SentenciasSql.ultimaQueContenga("from tarea");
+        for (Object valor : valores) {
+            sql = sql.replaceFirst("\\?", valor instanceof LocalDate ? "DATE '" + valor + "'" : String.valueOf(valor));
+        }
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        assertThat(plan).doesNotContain("tableScan");
+        //Comentario del plan con el acceso a TAREA: el índice elegido y las condiciones que resuelve con él
+        String[] lineas = plan.split("\n");
+        for (int i = 0; i < lineas.length - 1; i++) {
+            if (lineas[i].contains("\"TAREA\"")) {
+                StringBuilder acceso = new StringBuilder(lineas[++i].trim());
+                while (!lineas[i].contains("*/") && i + 1 < lineas.length) {
+                    acceso.append(' ').append(lineas[++i].trim());
+                }
+                return acceso.toString();
+            }
+        }
+        throw new IllegalStateException(plan);
+    }
+
+    //Recorre todas las páginas del listado y regresa cuántas tareas entregó
+    private int contarPaginando(String ruta) {
+        int total = 0;
+        String cursor = null;
+        do {
+            ResponseEntity<String> response = restTemplate.getForEntity(ruta + (cursor == null ? "" : "&cursor=" + cursor), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            int tamano = JsonPath.parse(response.getBody()).read("$.length()");
+            total += tamano;
+            cursor = response.getHeaders().getFirst(Constantes.HEADER_SIGUIENTE_CURSOR);
+        } while (cursor != null);
+        return total;
+    }
+
+    // Valida que cada combinación de filtros regrese solo las tareas que la cumplen, paginando por llave
+    @Test
+    void shouldFilterTareasByEachCombination() {
+        assertThat(contarPaginando("/tareas?usuario=2&estado=Pendiente&size=50"))
+                .isEqualTo(jdbcTemplate.queryForObject("select count(*) from tarea where usuario_id = 2 and estado = 0", Integer.class));
+        assertThat(contarPaginando("/tareas?estado=Vencida&venceAntes=2027-02-01&size=50"))
+                .isEqualTo(jdbcTemplate.queryForObject("select count(*) from tarea where estado = 2 and fecha_limite < DATE '2027-02-01'", Integer.class));
+        assertThat(contarPaginando("/tareas?venceDespues=2027-12-01&venceAntes=2027-12-20&size=50"))
+                .isEqualTo(jdbcTemplate.queryForObject("select count(*) from tarea where fecha_limite > DATE '2027-12-01' and fecha_limite < DATE '2027-12-20'", Integer.class));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas?usuario=3&estado=En progreso&size=1000", String.class);
+        JSONArray usuarios = JsonPath.parse(response.getBody()).read("$[*].usuarioAsignado.id");
+        JSONArray estados = JsonPath.parse(response.getBody()).read("$[*].estado");
+        assertThat(usuarios).isNotEmpty().allMatch(id -> ((Number) id).intValue() == 3);
+        assertThat(estados).allMatch(Constantes.TAREA_ESTADO_EN_PROGRESO::equals);
+    }
+
+    // Valida que un estado o una fecha inválidos regresen 400
+    @Test
+    void shouldRejectInvalidFilters() {
+        assertThat(restTemplate.getForEntity("/tareas?estado=Raro", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity("/tareas?venceAntes=mañana", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    // Valida que cada combinación de filtros se resuelva con su índice compuesto y no recorriendo la tabla
+    @Test
+    void shouldUseAnIndexForEachFilterCombination() {
+        assertThat(plan("/tareas?usuario=2&estado=Pendiente", 2, 0, 101))
+                .contains("IDX_TAREA_USUARIO_ESTADO").contains("USUARIO_ID =").contains("ESTADO =");
+        assertThat(plan("/tareas?usuario=2", 2, 101))
+                .contains("USUARIO_ID =");
+        assertThat(plan("/tareas?estado=Pendiente", 0, 101))
+                .contains("IDX_TAREA_ESTADO_FECHA_LIMITE").contains("ESTADO =");
+        assertThat(plan("/tareas?estado=Pendiente&venceAntes=2027-02-01", 0, INICIO.plusMonths(1), 101))
+                .contains("IDX_TAREA_ESTADO_FECHA_LIMITE").contains("ESTADO =").contains("FECHA_LIMITE <");
+        assertThat(plan("/tareas?venceAntes=2027-01-03", INICIO.plusDays(2), 101))
+                .contains("IDX_TAREA_FECHA_LIMITE").contains("FECHA_LIMITE <");
+        //Con los tres filtros cualquiera de los dos índices compuestos es válido, H2 elige según la selectividad
+        assertThat(plan("/tareas?usuario=1&estado=Pendiente&venceAntes=2027-02-01", 1, 0, INICIO.plusMonths(1), 101))
+                .containsAnyOf("IDX_TAREA_USUARIO_ESTADO", "IDX_TAREA_ESTADO_FECHA_LIMITE");
+
+        //En las páginas siguientes el índice compuesto también resuelve la condición sobre el id
+        String siguiente = restTemplate.getForEntity("/tareas?usuario=2&estado=Pendiente&size=10", String.class)
+                .getHeaders().getFirst(Constantes.HEADER_SIGUIENTE_CURSOR);
+        assertThat(plan("/tareas?usuario=2&estado=Pendiente&size=10&cursor=" + siguiente, 2, 0, Cursor.decodificar(siguiente), 11))
+                .contains("IDX_TAREA_USUARIO_ESTADO").contains("ID >");
+    }
+
+}
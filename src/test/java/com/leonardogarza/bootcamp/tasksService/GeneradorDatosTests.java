@@ -0,0 +1,65 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.jayway.jsonpath.JsonPath;
+import com.leonardogarza.bootcamp.tasksService.init.GeneradorDatos;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext
+public class GeneradorDatosTests {
+
+    private static final LocalDate REFERENCIA = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    GeneradorDatos generadorDatos;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    // Valida que la misma semilla genere los mismos datos, con las distribuciones esperadas y visibles en estadísticas y búsqueda
+    @Test
+    void shouldGenerateReproducibleDataWithRealisticDistributions() {
+        long inicio = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from tarea", Long.class);
+        generadorDatos.generar(50, 5000, 7, REFERENCIA);
+        long mitad = jdbcTemplate.queryForObject("select max(id) from tarea", Long.class);
+        generadorDatos.generar(50, 5000, 7, REFERENCIA);
+
+        String consulta = "select titulo, descripcion, estado, fecha_limite from tarea where id > ? and id <= ? order by id";
+        List<Map<String, Object>> primera = jdbcTemplate.queryForList(consulta, inicio, mitad);
+        List<Map<String, Object>> segunda = jdbcTemplate.queryForList(consulta, mitad, Long.MAX_VALUE);
+        assertThat(primera).hasSize(5000).isEqualTo(segunda);
+
+        for (EstadoTarea estado : EstadoTarea.values()) {
+            assertThat(primera.stream().filter(fila -> ((Number) fila.get("ESTADO")).intValue() == estado.getCodigo()).count())
+                    .isBetween(500L, 2000L);
+        }
+        Long activasVencidas = jdbcTemplate.queryForObject("select count(*) from tarea where id > ? and estado in (?, ?) and fecha_limite <= ?",
+                Long.class, inicio, EstadoTarea.PENDIENTE.getCodigo(), EstadoTarea.EN_PROGRESO.getCodigo(), REFERENCIA);
+        assertThat(activasVencidas).isZero();
+
+        //Pocos usuarios concentran la mayoría de las tareas
+        List<Long> porUsuario = jdbcTemplate.queryForList("select count(*) from tarea where id > ? and id <= ? group by usuario_id order by 1 desc",
+                Long.class, inicio, mitad);
+        assertThat(porUsuario.subList(0, 10).stream().mapToLong(Long::longValue).sum()).isGreaterThan(2500);
+
+        Long total = jdbcTemplate.queryForObject("select count(*) from tarea", Long.class);
+        assertThat(((Number) JsonPath.parse(restTemplate.getForObject("/tareas/stats", String.class)).read("$.total")).longValue()).isEqualTo(total);
+        assertThat(restTemplate.getForEntity("/tareas/search?q=informe", String.class).getHeaders().getFirst("X-Total-Count")).isNotEqualTo("0");
+    }
+
+}
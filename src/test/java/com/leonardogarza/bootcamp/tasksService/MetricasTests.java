@@ -0,0 +1,102 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.jayway.jsonpath.JsonPath;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MetricasTests {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    // Valida que la latencia de los endpoints se publique por ruta y resultado
+    @Test
+    void shouldExposeEndpointLatencyByRouteAndOutcome() {
+        restTemplate.getForEntity("/tareas", String.class);
+        restTemplate.getForEntity("/tareas/9999", String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/actuator/metrics/http.server.requests?tag=uri:/tareas&tag=outcome:SUCCESS", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        response = restTemplate.getForEntity(
+                "/actuator/metrics/http.server.requests?tag={uri}&tag=outcome:CLIENT_ERROR", String.class, "uri:/tareas/{id}");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    // Valida que las sentencias de cada sesión de Hibernate se publiquen etiquetadas con la ruta
+    @Test
+    void shouldExposeHibernateSessionStatementsByRoute() {
+        restTemplate.getForEntity("/tareas", String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/actuator/metrics/hibernate.session.statements?tag=uri:/tareas", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray count = JsonPath.parse(response.getBody()).read("$.measurements[?(@.statistic == 'COUNT')].value");
+        assertThat(((Number) count.get(0)).doubleValue()).isGreaterThanOrEqualTo(1);
+    }
+
+    // Valida que cada sesión reutilice los medidores de su ruta en el registro de la aplicación
+    @Test
+    void shouldReuseHibernateSessionMetersPerRoute() {
+        restTemplate.getForEntity("/usuarios", String.class);
+        DistributionSummary sentencias = meterRegistry.get("hibernate.session.statements").tag("uri", "/usuarios").summary();
+        long antes = sentencias.count();
+
+        restTemplate.getForEntity("/usuarios", String.class);
+
+        assertThat(meterRegistry.get("hibernate.session.statements").tag("uri", "/usuarios").summary()).isSameAs(sentencias);
+        assertThat(sentencias.count()).isGreaterThan(antes);
+    }
+
+    // Valida que las sesiones abiertas fuera de una petición se publiquen en el registro de este contexto sin ruta
+    @Test
+    void shouldRecordSessionsOutsideRequestsInThisContext() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.find(Usuario.class, 1L);
+        entityManager.close();
+        DistributionSummary sentencias = meterRegistry.get("hibernate.session.statements").tag("uri", "none").summary();
+        long antes = sentencias.count();
+
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.find(Usuario.class, 2L);
+        entityManager.close();
+
+        assertThat(sentencias.count()).isGreaterThan(antes);
+    }
+
+    // Valida que se publiquen las métricas de Hibernate, del pool de conexiones, del cache y del barrido
+    @Test
+    void shouldExposeHibernatePoolCacheAndSweeperMetrics() {
+        assertThat(restTemplate.getForEntity("/actuator/metrics/hibernate.statements", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/actuator/metrics/hikaricp.connections.active", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/actuator/metrics/hikaricp.connections.pending", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/actuator/metrics/cache.gets?tag=cache:tareas", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/actuator/metrics/tareas.vencidas.movidas", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
+import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import com.leonardogarza.bootcamp.tasksService.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistenteTests {
+
+    @TempDir
+    Path directorio;
+
+    // Valida que con el perfil persistente los datos y las llaves de idempotencia sobrevivan a un reinicio
+    // y la carga inicial no se repita
+    @Test
+    void shouldKeepDataAcrossRestarts() {
+        URI location;
+        try (ConfigurableApplicationContext contexto = arrancar()) {
+            assertThat(contexto.getBean(UsuarioRepository.class).count()).isEqualTo(4);
+            assertThat(contexto.getBean(TareaRepository.class).count()).isEqualTo(3);
+            Usuario usuario = contexto.getBean(UsuarioRepository.class).findAll().get(0);
+            contexto.getBean(TareaRepository.class).save(new Tarea("Sobrevive al reinicio", "Guardada en archivo",
+                    EstadoTarea.PENDIENTE, LocalDate.of(2030, 1, 1), usuario));
+            ResponseEntity<Void> alta = altaIdempotente(contexto);
+            assertThat(alta.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            location = alta.getHeaders().getLocation();
+        }
+
+        try (ConfigurableApplicationContext contexto = arrancar()) {
+            assertThat(contexto.getBean(UsuarioRepository.class).count()).isEqualTo(5);
+            assertThat(contexto.getBean(TareaRepository.class).count()).isEqualTo(4);
+            assertThat(contexto.getBean(TareaRepository.class).findAll())
+                    .extracting(Tarea::getTitulo).contains("Sobrevive al reinicio", "Proyecto Bootcamp");
+
+            //El reintento después del reinicio regresa el mismo alta sin crear otro usuario
+            ResponseEntity<Void> repetida = altaIdempotente(contexto);
+            assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(repetida.getHeaders().getLocation()).isEqualTo(location);
+            assertThat(contexto.getBean(UsuarioRepository.class).count()).isEqualTo(5);
+        }
+    }
+
+    private ResponseEntity<Void> altaIdempotente(ConfigurableApplicationContext contexto) {
+        TestRestTemplate restTemplate = new TestRestTemplate(new RestTemplateBuilder()
+                .rootUri("http://localhost:" + contexto.getEnvironment().getProperty("local.server.port")));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "alta-antes-del-reinicio");
+        return restTemplate.postForEntity("/usuarios", new HttpEntity<>(new Usuario("Juan Carlos Bodoque", "bodoque@31minutos.com"), headers), Void.class);
+    }
+
+    private ConfigurableApplicationContext arrancar() {
+        return new SpringApplicationBuilder(TasksServiceApplication.class)
+                .profiles("persistente")
+                .run("--tareas.datos.directorio=" + directorio.toAbsolutePath(), "--server.port=0");
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.leonardogarza.bootcamp.tasksService;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//Guarda el SQL que genera Hibernate para poder revisar su plan de ejecución en las pruebas.
+public class SentenciasSql implements StatementInspector {
+
+    private static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        SENTENCIAS.add(sql);
+        return sql;
+    }
+
+    public static void limpiar() {
+        SENTENCIAS.clear();
+    }
+
+    public static String ultimaQueContenga(String fragmento) {
+        for (int i = SENTENCIAS.size() - 1; i >= 0; i--) {
+            if (SENTENCIAS.get(i).contains(fragmento)) {
+                return SENTENCIAS.get(i);
+            }
+        }
+        throw new IllegalStateException("No se ejecutó ninguna sentencia con " + fragmento);
+    }
+
+}
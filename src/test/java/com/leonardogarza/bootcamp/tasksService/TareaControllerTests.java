@@ -2,22 +2,62 @@ package com.leonardogarza.bootcamp.tasksService;
 
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
+import com.leonardogarza.bootcamp.tasksService.busqueda.IndiceTareas;
+import com.leonardogarza.bootcamp.tasksService.dto.EstadisticasTareas;
+import com.leonardogarza.bootcamp.tasksService.dto.FilaRechazada;
+import com.leonardogarza.bootcamp.tasksService.dto.ResultadoImportacion;
+import com.leonardogarza.bootcamp.tasksService.estadisticas.ContadoresTareas;
+import com.leonardogarza.bootcamp.tasksService.evento.TareaEvento;
+import com.leonardogarza.bootcamp.tasksService.exportacion.ExportadorTareas;
+import com.leonardogarza.bootcamp.tasksService.importacion.ImportadorTareas;
+import com.leonardogarza.bootcamp.tasksService.model.EstadoTarea;
 import com.leonardogarza.bootcamp.tasksService.model.Tarea;
 import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.repository.TareaRepository;
+import com.leonardogarza.bootcamp.tasksService.scheduler.BarridoTareasVencidas;
 import com.leonardogarza.bootcamp.tasksService.util.Constantes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import net.minidev.json.JSONArray;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -27,6 +67,33 @@ public class TareaControllerTests {
     @Autowired
     TestRestTemplate restTemplate;
 
+    @Autowired
+    BarridoTareasVencidas barridoTareasVencidas;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TareaRepository tareaRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ExportadorTareas exportadorTareas;
+
+    @Autowired
+    ContadoresTareas contadoresTareas;
+
+    @Autowired
+    ImportadorTareas importadorTareas;
+
+    @Autowired
+    IndiceTareas indiceTareas;
+
     // Valida que retorne todas las tareas exitosamente
     @Test
     void retornaListaTareas() {
@@ -48,6 +115,100 @@ public class TareaControllerTests {
         assertThat(titulos).containsExactlyInAnyOrder("Proyecto Bootcamp", "Presentacion Trabajo", "Nota Verde");
     }
 
+    // Valida que el listado se pagine por llave y el cursor lleve a la siguiente página
+    @Test
+    void retornaListaTareasPaginada() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas?size=2", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$[*].id");
+        assertThat(ids).containsExactly(1, 2);
+
+        String cursor = response.getHeaders().getFirst(Constantes.HEADER_SIGUIENTE_CURSOR);
+        assertThat(cursor).isNotBlank();
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).contains("cursor=" + cursor).contains("rel=\"next\"");
+
+        ResponseEntity<String> siguiente = restTemplate.getForEntity("/tareas?size=2&cursor=" + cursor, String.class);
+        assertThat(siguiente.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray idsSiguiente = JsonPath.parse(siguiente.getBody()).read("$[*].id");
+        assertThat(idsSiguiente).containsExactly(3);
+        assertThat(siguiente.getHeaders().containsKey(Constantes.HEADER_SIGUIENTE_CURSOR)).isFalse();
+    }
+
+    // Valida que el servicio regrese un bad request cuando el cursor es inválido
+    @Test
+    void shouldNotListTareasWithAnInvalidCursor() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas?cursor=invalido", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    // Valida que el listado cueste el mismo número de sentencias SQL sin importar cuántas tareas y usuarios haya
+    @Test
+    @DirtiesContext
+    void shouldListTareasWithConstantStatementCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        long sentenciasPocas = statistics.getPrepareStatementCount();
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            usuarios.add(new Usuario("Usuario " + i, "usuario" + i + "@prueba.com"));
+        }
+        JSONArray idsUsuarios = JsonPath.parse(restTemplate.postForEntity("/usuarios/batch", usuarios, String.class).getBody()).read("$[*].id");
+        List<Tarea> tareas = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setId(((Number) idsUsuarios.get(i % idsUsuarios.size())).longValue());
+            tareas.add(new Tarea("Tarea " + i, "Descripcion " + i, Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 1, 1), usuario));
+        }
+        restTemplate.postForEntity("/tareas/batch", tareas, String.class);
+
+        statistics.clear();
+        response = restTemplate.getForEntity("/tareas", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        int tareasCount = JsonPath.parse(response.getBody()).read("$.length()");
+        assertThat(tareasCount).isEqualTo(63);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(sentenciasPocas).isEqualTo(1);
+
+        //Del usuario solo se serializan id y nombre
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray emails = documentContext.read("$[*].usuarioAsignado.email");
+        assertThat(emails).isEmpty();
+        JSONArray nombres = documentContext.read("$[*].usuarioAsignado.nombre");
+        assertThat(nombres).hasSize(63);
+    }
+
+    // Valida que equals y hashCode funcionen con el usuario asignado como proxy LAZY sin inicializarlo
+    @Test
+    void shouldCompareTareasWithLazyUsuarioProxy() {
+        EntityManager otro = entityManagerFactory.createEntityManager();
+        Usuario usuario = otro.find(Usuario.class, 3L);
+        otro.close();
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Tarea tarea = entityManager.find(Tarea.class, 3L);
+            assertThat(Hibernate.isInitialized(tarea.getUsuarioAsignado())).isFalse();
+            Tarea copia = new Tarea(tarea.getTitulo(), tarea.getDescripcion(), tarea.getEstadoTarea(), tarea.getFechaLimite(), usuario);
+            copia.setId(tarea.getId());
+
+            assertThat(tarea).isEqualTo(copia);
+            assertThat(copia).isEqualTo(tarea);
+            assertThat(tarea.hashCode()).isEqualTo(copia.hashCode());
+            assertThat(tarea.toString()).startsWith("Tarea{").endsWith("usuarioAsignado=3}");
+            assertThat(Hibernate.isInitialized(tarea.getUsuarioAsignado())).isFalse();
+            assertThat(new Tarea().toString()).endsWith("usuarioAsignado=null}");
+
+            assertThat(tarea.getUsuarioAsignado()).isEqualTo(usuario);
+            assertThat(usuario).isEqualTo(tarea.getUsuarioAsignado());
+            assertThat(usuario.hashCode()).isEqualTo(tarea.getUsuarioAsignado().hashCode());
+        } finally {
+            entityManager.close();
+        }
+    }
+
     // Valida que retorne exitosamente una tarea por Id
     @Test
     void retornaUnTareaPorId() {
@@ -78,6 +239,16 @@ public class TareaControllerTests {
         assertThat(usuario).isEqualTo(3);
     }
 
+    // Valida que el estado se guarde como código numérico y se exponga con su etiqueta
+    @Test
+    void shouldStoreEstadoAsNumericCode() {
+        Number codigo = jdbcTemplate.queryForObject("select estado from tarea where id = 2", Number.class);
+        assertThat(codigo.shortValue()).isEqualTo(EstadoTarea.COMPLETADA.getCodigo());
+
+        String estado = JsonPath.parse(restTemplate.getForEntity("/tareas/2", String.class).getBody()).read("$.estado");
+        assertThat(estado).isEqualTo(Constantes.TAREA_ESTADO_COMPLETADA);
+    }
+
     // Valida que el servicio devuelva un 404 cuando no encuentra una tarea
     @Test
     void shouldNotReturnAnTareaWithAnUnknownId() {
@@ -120,6 +291,63 @@ public class TareaControllerTests {
         assertThat(usuarioAsignado).isEqualTo(3);
     }
 
+    // Valida que el alta por lote guarde las tareas válidas y reporte el resultado de cada elemento
+    @Test
+    @DirtiesContext
+    void shouldCreateTareasInBatch() {
+        Usuario usuario = restTemplate.getForEntity("/usuarios/3", Usuario.class).getBody();
+        Usuario inexistente = new Usuario("Prueba", "inexistente@no.com");
+        inexistente.setId(999L);
+        List<Tarea> tareas = List.of(
+                new Tarea("Guion", "Escribir el guion", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 7, 12), usuario),
+                new Tarea("Emision", "Preparar la nueva emision", "Estatus invalido", LocalDate.of(2027, 7, 12), usuario),
+                new Tarea("Ensayo", "Ensayar el programa", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 7, 12), inexistente),
+                new Tarea("Grabacion", "Grabar el programa", Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2027, 7, 13), usuario));
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/tareas/batch", tareas, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray status = documentContext.read("$[*].status");
+        assertThat(status).containsExactly(201, 400, 404, 201);
+
+        Number id = documentContext.read("$[3].id");
+        ResponseEntity<String> getResponse = restTemplate.getForEntity("/tareas/" + id, String.class);
+        assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String titulo = JsonPath.parse(getResponse.getBody()).read("$.titulo");
+        assertThat(titulo).isEqualTo("Grabacion");
+    }
+
+    // Valida que la actualización por lote guarde las tareas válidas y reporte el resultado de cada elemento
+    @Test
+    @DirtiesContext
+    void shouldUpdateTareasInBatch() {
+        Usuario usuario = restTemplate.getForEntity("/usuarios/2", Usuario.class).getBody();
+        Usuario inexistente = new Usuario("Prueba", "inexistente@no.com");
+        inexistente.setId(999L);
+        Tarea valida = new Tarea("Guion", "Reescribir el guion", Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2027, 7, 12), usuario);
+        valida.setId(3L);
+        Tarea sinTarea = new Tarea("Ensayo", "Ensayar el programa", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 7, 12), usuario);
+        sinTarea.setId(9999L);
+        Tarea estadoInvalido = new Tarea("Emision", "Preparar la nueva emision", "Estatus invalido", LocalDate.of(2027, 7, 12), usuario);
+        estadoInvalido.setId(1L);
+        Tarea sinUsuario = new Tarea("Grabacion", "Grabar el programa", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 7, 13), inexistente);
+        sinUsuario.setId(2L);
+
+        ResponseEntity<String> response = restTemplate.exchange("/tareas/batch", HttpMethod.PUT,
+                new HttpEntity<>(List.of(valida, sinTarea, estadoInvalido, sinUsuario)), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray status = JsonPath.parse(response.getBody()).read("$[*].status");
+        assertThat(status).containsExactly(200, 404, 400, 404);
+
+        DocumentContext documentContext = JsonPath.parse(restTemplate.getForEntity("/tareas/3", String.class).getBody());
+        assertThat((String) documentContext.read("$.descripcion")).isEqualTo("Reescribir el guion");
+        assertThat((String) documentContext.read("$.estado")).isEqualTo(Constantes.TAREA_ESTADO_EN_PROGRESO);
+        assertThat((Number) documentContext.read("$.usuarioAsignado.id")).isEqualTo(2);
+        String titulo = JsonPath.parse(restTemplate.getForEntity("/tareas/1", String.class).getBody()).read("$.titulo");
+        assertThat(titulo).isNotEqualTo("Emision");
+    }
+
     // Valida que el servicio no crea una nueva tarea si el estatus es inválido
     @Test
     @DirtiesContext
@@ -244,4 +472,629 @@ public class TareaControllerTests {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
+    // Valida que el GET regrese ETag y un 304 sin cuerpo si If-None-Match sigue vigente
+    @Test
+    @DirtiesContext
+    void shouldReturnNotModifiedWhenEtagMatches() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas/1", String.class);
+        String etag = response.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> noModificada = restTemplate.exchange("/tareas/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(noModificada.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(noModificada.getBody()).isNull();
+
+        Tarea tarea = new Tarea("Proyecto Bootcamp cambio", "CAMBIO DE TEXTO",
+                Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2027, 6, 2), restTemplate.getForEntity("/usuarios/1", Usuario.class).getBody());
+        restTemplate.exchange("/tareas/1", HttpMethod.PUT, new HttpEntity<>(tarea), Void.class);
+        ResponseEntity<String> modificada = restTemplate.exchange("/tareas/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(modificada.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(modificada.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    // Valida que un PUT con If-Match de una versión anterior se rechace con 412 y no sobrescriba los cambios
+    @Test
+    @DirtiesContext
+    void shouldRejectUpdateWithStaleEtag() {
+        String etag = restTemplate.getForEntity("/tareas/1", String.class).getHeaders().getETag();
+        Usuario usuario = restTemplate.getForEntity("/usuarios/1", Usuario.class).getBody();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(etag);
+        Tarea primera = new Tarea("Primera edición", "Gana la primera", Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2027, 6, 2), usuario);
+        ResponseEntity<Void> primeraResponse = restTemplate.exchange("/tareas/1", HttpMethod.PUT, new HttpEntity<>(primera, headers), Void.class);
+        assertThat(primeraResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(primeraResponse.getHeaders().getETag()).isNotEqualTo(etag);
+
+        Tarea segunda = new Tarea("Segunda edición", "Llega tarde", Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2027, 6, 2), usuario);
+        ResponseEntity<String> segundaResponse = restTemplate.exchange("/tareas/1", HttpMethod.PUT, new HttpEntity<>(segunda, headers), String.class);
+        assertThat(segundaResponse.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        String titulo = JsonPath.parse(restTemplate.getForEntity("/tareas/1", String.class).getBody()).read("$.titulo");
+        assertThat(titulo).isEqualTo("Primera edición");
+    }
+
+    // Valida que el PATCH cambie solo los campos enviados con una sola sentencia SQL y que el GET no regrese el valor anterior del cache
+    @Test
+    @DirtiesContext
+    void shouldPatchEstadoWithASingleStatement() {
+        String etag = restTemplate.getForEntity("/tareas/1", String.class).getHeaders().getETag();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        ResponseEntity<Void> response = restTemplate.exchange("/tareas/1", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("estado", Constantes.TAREA_ESTADO_COMPLETADA)), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        ResponseEntity<String> getResponse = restTemplate.getForEntity("/tareas/1", String.class);
+        DocumentContext documentContext = JsonPath.parse(getResponse.getBody());
+        String estado = documentContext.read("$.estado");
+        String titulo = documentContext.read("$.titulo");
+        Number usuarioAsignado = documentContext.read("$.usuarioAsignado.id");
+        assertThat(estado).isEqualTo(Constantes.TAREA_ESTADO_COMPLETADA);
+        assertThat(titulo).isEqualTo("Proyecto Bootcamp");
+        assertThat(usuarioAsignado).isEqualTo(1);
+        assertThat(getResponse.getHeaders().getETag()).isNotEqualTo(etag);
+
+        //Solo se desaloja la tarea modificada, las demás siguen en el cache de segundo nivel
+        restTemplate.getForEntity("/tareas/2", String.class);
+        restTemplate.exchange("/tareas/1", HttpMethod.PATCH, new HttpEntity<>(Map.of("estado", Constantes.TAREA_ESTADO_PENDIENTE)), Void.class);
+        statistics.clear();
+        restTemplate.getForEntity("/tareas/2", String.class);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    // Valida que el PATCH respete If-Match y regrese 404 si la tarea o el usuario no existen y 400 si el estado es inválido
+    @Test
+    @DirtiesContext
+    void shouldValidatePatchTarea() {
+        String etag = restTemplate.getForEntity("/tareas/1", String.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(etag);
+        ResponseEntity<Void> primera = restTemplate.exchange("/tareas/1", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("titulo", "Primera edición"), headers), Void.class);
+        assertThat(primera.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(primera.getHeaders().getETag()).isEqualTo(restTemplate.getForEntity("/tareas/1", String.class).getHeaders().getETag());
+
+        ResponseEntity<String> segunda = restTemplate.exchange("/tareas/1", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("titulo", "Segunda edición"), headers), String.class);
+        assertThat(segunda.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        String titulo = JsonPath.parse(restTemplate.getForEntity("/tareas/1", String.class).getBody()).read("$.titulo");
+        assertThat(titulo).isEqualTo("Primera edición");
+
+        assertThat(restTemplate.exchange("/tareas/9999", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("titulo", "No existe")), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.exchange("/tareas/1", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("usuarioAsignado", Map.of("id", 9999))), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.exchange("/tareas/1", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("estado", "Estado raro")), String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.exchange("/tareas/1", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("usuarioAsignado", Map.of("id", 2))), Void.class).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        Number usuarioAsignado = JsonPath.parse(restTemplate.getForEntity("/tareas/1", String.class).getBody()).read("$.usuarioAsignado.id");
+        assertThat(usuarioAsignado).isEqualTo(2);
+    }
+
+    // Valida que la búsqueda ignore acentos, acepte prefijos y ordene primero las coincidencias en el título
+    @Test
+    void shouldSearchTareasIgnoringAccentsAndByPrefix() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas/search?q=PRESENTACIÓN", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray titulos = JsonPath.parse(response.getBody()).read("$[*].titulo");
+        assertThat(titulos).containsExactly("Presentacion Trabajo");
+
+        JSONArray porPrefijo = JsonPath.parse(restTemplate.getForEntity("/tareas/search?q=boot", String.class).getBody()).read("$[*].titulo");
+        assertThat(porPrefijo).containsExactly("Proyecto Bootcamp");
+
+        //"verde" está en el título de Nota Verde; "trabajo" en título y descripción de Presentacion Trabajo
+        ResponseEntity<String> varias = restTemplate.getForEntity("/tareas/search?q=nota verde", String.class);
+        JSONArray titulosVarias = JsonPath.parse(varias.getBody()).read("$[*].titulo");
+        assertThat(titulosVarias).containsExactly("Nota Verde");
+        assertThat(varias.getHeaders().getFirst(Constantes.HEADER_TOTAL)).isEqualTo("1");
+
+        assertThat(restTemplate.getForEntity("/tareas/search?q=de", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    // Valida que el índice de búsqueda se actualice al crear, modificar y eliminar tareas, y que pagine por relevancia
+    @Test
+    @DirtiesContext
+    void shouldKeepSearchIndexUpToDate() {
+        Usuario usuario = restTemplate.getForEntity("/usuarios/1", Usuario.class).getBody();
+        Tarea enTitulo = new Tarea("Calendario navideño", "Imprimir", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 12, 1), usuario);
+        Tarea enDescripcion = new Tarea("Imprimir", "Pegar el calendario en la pared", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 12, 1), usuario);
+        URI location = restTemplate.postForEntity("/tareas", enDescripcion, Void.class).getHeaders().getLocation();
+        restTemplate.postForEntity("/tareas/batch", List.of(enTitulo), String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas/search?q=calend&size=1", String.class);
+        JSONArray primeraPagina = JsonPath.parse(response.getBody()).read("$[*].titulo");
+        assertThat(primeraPagina).containsExactly("Calendario navideño");
+        assertThat(response.getHeaders().getFirst(Constantes.HEADER_TOTAL)).isEqualTo("2");
+        JSONArray segundaPagina = JsonPath.parse(restTemplate.getForEntity("/tareas/search?q=calend&size=1&page=1", String.class).getBody()).read("$[*].titulo");
+        assertThat(segundaPagina).containsExactly("Imprimir");
+
+        restTemplate.exchange(location, HttpMethod.PATCH, new HttpEntity<>(Map.of("descripcion", "Colgar la guirnalda")), Void.class);
+        JSONArray trasPatch = JsonPath.parse(restTemplate.getForEntity("/tareas/search?q=calendario", String.class).getBody()).read("$[*].titulo");
+        assertThat(trasPatch).containsExactly("Calendario navideño");
+        JSONArray porTituloConservado = JsonPath.parse(restTemplate.getForEntity("/tareas/search?q=imprimir guirnalda", String.class).getBody()).read("$[*].descripcion");
+        assertThat(porTituloConservado).containsExactly("Colgar la guirnalda");
+
+        restTemplate.delete(location);
+        JSONArray trasEliminar = JsonPath.parse(restTemplate.getForEntity("/tareas/search?q=guirnalda", String.class).getBody()).read("$[*].titulo");
+        assertThat(trasEliminar).isEmpty();
+    }
+
+    // Valida que no se pierdan los cambios que llegan mientras se reconstruye el índice de búsqueda
+    @Test
+    @DirtiesContext
+    void shouldKeepSearchChangesReceivedDuringRebuild() throws Exception {
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        List<Tarea> tareas = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tareas.add(new Tarea("Original " + i, "Descripcion " + i, Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2028, 1, 1), usuario));
+        }
+        JSONArray ids = JsonPath.parse(restTemplate.postForEntity("/tareas/batch", tareas, String.class).getBody()).read("$[*].id");
+
+        CompletableFuture<Void> escrituras = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < ids.size(); i++) {
+                String ruta = "/tareas/" + ids.get(i);
+                if (i % 3 == 0) {
+                    restTemplate.delete(ruta);
+                } else {
+                    restTemplate.exchange(ruta, HttpMethod.PATCH, new HttpEntity<>(Map.of("titulo", "Renombrada " + i)), Void.class);
+                }
+            }
+        });
+        while (!escrituras.isDone()) {
+            indiceTareas.reconstruir();
+        }
+        escrituras.get();
+
+        ResponseEntity<String> renombradas = restTemplate.getForEntity("/tareas/search?q=renombrada&size=1", String.class);
+        assertThat(renombradas.getHeaders().getFirst(Constantes.HEADER_TOTAL)).isEqualTo("200");
+        ResponseEntity<String> originales = restTemplate.getForEntity("/tareas/search?q=original&size=1", String.class);
+        assertThat(originales.getHeaders().getFirst(Constantes.HEADER_TOTAL)).isEqualTo("0");
+    }
+
+    // Valida que la exportación regrese una tarea por línea en NDJSON
+    @Test
+    void shouldExportTareasAsNdjson() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas/export", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).isEqualTo("application/x-ndjson");
+
+        String[] lineas = response.getBody().split("\n");
+        assertThat(lineas).hasSize(3);
+        List<Number> ids = new ArrayList<>();
+        for (String linea : lineas) {
+            ids.add(JsonPath.parse(linea).read("$.id"));
+        }
+        assertThat(ids).containsExactly(1, 2, 3);
+        String titulo = JsonPath.parse(lineas[0]).read("$.titulo");
+        assertThat(titulo).isEqualTo("Proyecto Bootcamp");
+    }
+
+    // Valida que la exportación no vacíe el cache de segundo nivel (el usuario 4 no tiene tareas, la exportación no lo vuelve a cargar)
+    @Test
+    void shouldExportWithoutEvictingSecondLevelCache() {
+        restTemplate.getForEntity("/usuarios/4", String.class);
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        assertThat(cache.contains(Usuario.class, 4L)).isTrue();
+
+        assertThat(exportadorTareas.exportar(OutputStream.nullOutputStream())).isEqualTo(3);
+
+        assertThat(cache.contains(Usuario.class, 4L)).isTrue();
+    }
+
+    // Valida que la exportación se comprima con gzip cuando el cliente lo acepta
+    @Test
+    void shouldExportTareasGzipped() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ResponseEntity<byte[]> response = restTemplate.exchange("/tareas/export", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            String cuerpo = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(cuerpo.split("\n")).hasSize(3);
+        }
+    }
+
+    // Valida que la importación CSV guarde las filas válidas y reporte las rechazadas con su número de línea
+    @Test
+    @DirtiesContext
+    void shouldImportTareasFromCsv() {
+        String csv = """
+                titulo,descripcion,estado,fechaLimite,usuarioId
+                Regalos,"Comprar regalos, envolverlos",Pendiente,2027-12-01,4
+                Trineo,Revisar el trineo,Estado raro,2027-12-10,4
+                Mapa,Trazar la ruta,Pendiente,2027-12-20,9999
+                Renos,Alimentar a los renos,En progreso,no-es-fecha,4
+                Cartas,"Leer las \"\"cartas\"\"",En progreso,2027-12-22,3
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "text/csv");
+        ResponseEntity<String> response = restTemplate.postForEntity("/tareas/import", new HttpEntity<>(csv, headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        Number procesadas = documentContext.read("$.procesadas");
+        Number importadas = documentContext.read("$.importadas");
+        JSONArray lineasRechazadas = documentContext.read("$.rechazadas[*].linea");
+        assertThat(procesadas).isEqualTo(5);
+        assertThat(importadas).isEqualTo(2);
+        assertThat(lineasRechazadas).containsExactly(3, 4, 5);
+
+        JSONArray titulos = JsonPath.parse(restTemplate.getForEntity("/tareas", String.class).getBody()).read("$[*].titulo");
+        assertThat(titulos).contains("Regalos", "Cartas").doesNotContain("Trineo", "Mapa", "Renos");
+        JSONArray descripciones = JsonPath.parse(restTemplate.getForEntity("/tareas", String.class).getBody()).read("$[?(@.titulo == 'Cartas')].descripcion");
+        assertThat(descripciones.get(0)).isEqualTo("Leer las \"cartas\"");
+    }
+
+    // Valida que si se elimina un usuario a mitad de la importación solo se rechacen las filas de ese chunk
+    @Test
+    @DirtiesContext
+    void shouldRejectChunkWhenUsuarioIsDeletedDuringImport() throws IOException {
+        StringBuilder primerChunk = new StringBuilder("titulo,descripcion,estado,fechaLimite,usuarioId\n");
+        for (int i = 0; i < 1000; i++) {
+            primerChunk.append("Tarea ").append(i).append(",Descripcion,Pendiente,2027-12-01,1\n");
+        }
+        String segundoChunk = "Huerfana 1,Descripcion,Pendiente,2027-12-01,4\nHuerfana 2,Descripcion,Pendiente,2027-12-01,4\n";
+        //El segundo chunk se empieza a leer después de guardar el primero, ahí se elimina el usuario 4
+        Enumeration<InputStream> partes = new Enumeration<>() {
+            int siguiente = 0;
+
+            public boolean hasMoreElements() {
+                return siguiente < 2;
+            }
+
+            public InputStream nextElement() {
+                if (siguiente++ == 0) {
+                    return new ByteArrayInputStream(primerChunk.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                jdbcTemplate.update("delete from usuario where id = 4");
+                return new ByteArrayInputStream(segundoChunk.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+
+        ResultadoImportacion resultado = importadorTareas.importar(new SequenceInputStream(partes), ImportadorTareas.Formato.CSV);
+
+        assertThat(resultado.importadas()).isEqualTo(1000);
+        assertThat(resultado.rechazadas()).extracting(FilaRechazada::linea).containsExactly(1002L, 1003L);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tarea where usuario_id = 4", Long.class)).isZero();
+    }
+
+    // Valida que lo exportado en NDJSON se pueda volver a importar y que un CSV sin columnas requeridas regrese 400
+    @Test
+    @DirtiesContext
+    void shouldImportTareasFromNdjsonExport() {
+        String exportadas = restTemplate.getForEntity("/tareas/export", String.class).getBody();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/x-ndjson");
+        ResponseEntity<String> response = restTemplate.postForEntity("/tareas/import", new HttpEntity<>(exportadas, headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Number importadas = JsonPath.parse(response.getBody()).read("$.importadas");
+        assertThat(importadas).isEqualTo(3);
+        assertThat(restTemplate.getForEntity("/tareas/export", String.class).getBody().split("\\n")).hasSize(6);
+
+        HttpHeaders headersCsv = new HttpHeaders();
+        headersCsv.set(HttpHeaders.CONTENT_TYPE, "text/csv");
+        ResponseEntity<String> sinColumnas = restTemplate.postForEntity("/tareas/import", new HttpEntity<>("titulo,estado\nA,Pendiente\n", headersCsv), String.class);
+        assertThat(sinColumnas.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    // Valida que el barrido mueva a Vencida las tareas activas con fecha límite pasada y respete las completadas
+    @Test
+    @DirtiesContext
+    void shouldMarkOverdueTareasAsVencida() {
+        ResponseEntity<Usuario> userResponse = restTemplate.getForEntity("/usuarios/4", Usuario.class);
+        Usuario usuario = userResponse.getBody();
+        Tarea tarea = new Tarea("Entregar regalos", "Repartir los regalos de navidad",
+                Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 12, 24), usuario);
+        URI location = restTemplate.postForEntity("/tareas", tarea, Void.class).getHeaders().getLocation();
+
+        int movidas = barridoTareasVencidas.barrer(LocalDate.of(2027, 12, 25));
+        assertThat(movidas).isGreaterThanOrEqualTo(1);
+        assertThat(barridoTareasVencidas.getTotalMovidas()).isGreaterThanOrEqualTo(movidas);
+
+        String estado = JsonPath.parse(restTemplate.getForEntity(location, String.class).getBody()).read("$.estado");
+        assertThat(estado).isEqualTo(Constantes.TAREA_ESTADO_VENCIDA);
+
+        String estadoCompletada = JsonPath.parse(restTemplate.getForEntity("/tareas/2", String.class).getBody()).read("$.estado");
+        assertThat(estadoCompletada).isEqualTo(Constantes.TAREA_ESTADO_COMPLETADA);
+
+        assertThat(barridoTareasVencidas.barrer(LocalDate.of(2027, 12, 25))).isZero();
+    }
+
+    // Valida que las estadísticas en memoria coincidan con un conteo agrupado en la base de datos
+    @Test
+    void shouldServeStatsMatchingTheDatabase() {
+        assertStatsCoincidenConLaBase();
+    }
+
+    // Valida que la reconciliación corrija un evento aplicado fuera de orden
+    @Test
+    void shouldReconcileStatsAfterOutOfOrderEvent() {
+        //La tarea 2 está Completada en la base, llega tarde un evento anterior que la dejaba Pendiente
+        long completadas = estadoStats(Constantes.TAREA_ESTADO_COMPLETADA);
+        contadoresTareas.alCambiar(TareaEvento.cambioDeEstado(2L, EstadoTarea.PENDIENTE, EstadoTarea.COMPLETADA, 2L));
+        assertThat(estadoStats(Constantes.TAREA_ESTADO_COMPLETADA)).isEqualTo(completadas - 1);
+
+        contadoresTareas.reconciliar();
+        assertThat(estadoStats(Constantes.TAREA_ESTADO_COMPLETADA)).isEqualTo(completadas);
+        assertStatsCoincidenConLaBase();
+    }
+
+    // Valida que no se pierdan ni se cuenten dos veces los cambios hechos mientras la reconciliación lee la tabla
+    @Test
+    @DirtiesContext
+    void shouldKeepEventsReceivedDuringReconciliation() {
+        Usuario usuario = new Usuario();
+        usuario.setId(4L);
+        List<Tarea> tareas = List.of(
+                new Tarea("Cambia de estado", "Descripcion", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2028, 1, 1), usuario),
+                new Tarea("Se elimina", "Descripcion", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2028, 1, 1), usuario));
+        JSONArray ids = JsonPath.parse(restTemplate.postForEntity("/tareas/batch", tareas, String.class).getBody()).read("$[*].id");
+        long cambia = ((Number) ids.get(0)).longValue();
+        long eliminada = ((Number) ids.get(1)).longValue();
+
+        //Contadores aparte cuyo repositorio hace tres escrituras en otro hilo justo después del conteo agrupado,
+        //así sus commits quedan fuera de la lectura y sus eventos llegan mientras se lee
+        ContadoresTareas[] contadores = new ContadoresTareas[1];
+        TareaRepository repositorio = (TareaRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{TareaRepository.class},
+                (proxy, metodo, argumentos) -> {
+                    Object resultado;
+                    try {
+                        resultado = metodo.invoke(tareaRepository, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (metodo.getName().equals("contarPorEstadoYUsuario")) {
+                        CompletableFuture.runAsync(() -> {
+                            HttpHeaders headers = new HttpHeaders();
+                            headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+                            restTemplate.exchange("/tareas/" + cambia, HttpMethod.PATCH, new HttpEntity<>("{\"estado\":\"Completada\"}", headers), Void.class);
+                            contadores[0].alCambiar(TareaEvento.cambioDeEstado(cambia, EstadoTarea.COMPLETADA, EstadoTarea.PENDIENTE, 4L));
+                            restTemplate.delete("/tareas/" + eliminada);
+                            contadores[0].alCambiar(TareaEvento.eliminada(eliminada, EstadoTarea.PENDIENTE, 4L));
+                            Tarea nueva = new Tarea("Nueva", "Descripcion", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2028, 1, 1), usuario);
+                            URI location = restTemplate.postForLocation("/tareas", nueva);
+                            nueva.setId(Long.parseLong(location.getPath().substring(location.getPath().lastIndexOf('/') + 1)));
+                            contadores[0].alCambiar(TareaEvento.creada(nueva));
+                        }).join();
+                    }
+                    return resultado;
+                });
+        contadores[0] = new ContadoresTareas(repositorio, transactionTemplate, new SimpleMeterRegistry());
+        contadores[0].reconciliar();
+
+        EstadisticasTareas estadisticas = contadores[0].estadisticas();
+        assertThat(estadisticas.total()).isEqualTo(jdbcTemplate.queryForObject("select count(*) from tarea", Long.class));
+        for (EstadoTarea estado : EstadoTarea.values()) {
+            assertThat(estadisticas.porEstado().get(estado.getEtiqueta()))
+                    .isEqualTo(jdbcTemplate.queryForObject("select count(*) from tarea where estado = ?", Long.class, estado.getCodigo()));
+        }
+        assertThat(estadisticas.porUsuario().get(4L))
+                .isEqualTo(jdbcTemplate.queryForObject("select count(*) from tarea where usuario_id = 4", Long.class));
+    }
+
+    private long estadoStats(String estado) {
+        String body = restTemplate.getForEntity("/tareas/stats", String.class).getBody();
+        return ((Number) JsonPath.parse(body).read("$.porEstado['" + estado + "']")).longValue();
+    }
+
+    private void assertStatsCoincidenConLaBase() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas/stats", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext stats = JsonPath.parse(response.getBody());
+
+        Long total = jdbcTemplate.queryForObject("select count(*) from tarea", Long.class);
+        assertThat(((Number) stats.read("$.total")).longValue()).isEqualTo(total);
+        for (EstadoTarea estado : EstadoTarea.values()) {
+            Long porEstado = jdbcTemplate.queryForObject("select count(*) from tarea where estado = ?", Long.class, estado.getCodigo());
+            assertThat(((Number) stats.read("$.porEstado['" + estado.getEtiqueta() + "']")).longValue()).isEqualTo(porEstado);
+        }
+        Map<String, Object> porUsuario = stats.read("$.porUsuario");
+        List<Map<String, Object>> filas = jdbcTemplate.queryForList("select usuario_id, count(*) total from tarea where usuario_id is not null group by usuario_id");
+        assertThat(porUsuario).hasSize(filas.size());
+        for (Map<String, Object> fila : filas) {
+            assertThat(((Number) porUsuario.get(String.valueOf(fila.get("USUARIO_ID")))).longValue())
+                    .isEqualTo(((Number) fila.get("TOTAL")).longValue());
+        }
+    }
+
+    // Valida que las estadísticas por usuario sigan a las altas, cambios de estado, el barrido de vencidas y las bajas
+    @Test
+    @DirtiesContext
+    void shouldUpdateStatsOnEveryWrite() {
+        long inicial = totalStatsUsuario(4);
+        Usuario usuario = restTemplate.getForEntity("/usuarios/4", Usuario.class).getBody();
+        Tarea tarea = new Tarea("Renovar licencia", "Ir al módulo de tránsito",
+                Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2028, 1, 10), usuario);
+        URI location = restTemplate.postForEntity("/tareas", tarea, Void.class).getHeaders().getLocation();
+        assertThat(totalStatsUsuario(4)).isEqualTo(inicial + 1);
+        long vencidas = estadoStatsUsuario(4, Constantes.TAREA_ESTADO_VENCIDA);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        restTemplate.exchange(location, HttpMethod.PATCH, new HttpEntity<>("{\"estado\":\"En progreso\"}", headers), Void.class);
+        assertThat(estadoStatsUsuario(4, "En progreso")).isGreaterThanOrEqualTo(1);
+
+        barridoTareasVencidas.barrer(LocalDate.of(2028, 1, 11));
+        assertThat(estadoStatsUsuario(4, Constantes.TAREA_ESTADO_VENCIDA)).isEqualTo(vencidas + 1);
+        assertThat(totalStatsUsuario(4)).isEqualTo(inicial + 1);
+
+        restTemplate.delete(location);
+        assertThat(totalStatsUsuario(4)).isEqualTo(inicial);
+        assertThat(estadoStatsUsuario(4, Constantes.TAREA_ESTADO_VENCIDA)).isEqualTo(vencidas);
+
+        assertThat(restTemplate.getForEntity("/tareas/stats?usuario=9999", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private long totalStatsUsuario(long usuarioId) {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tareas/stats?usuario=" + usuarioId, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((Number) JsonPath.parse(response.getBody()).read("$.total")).longValue();
+    }
+
+    private long estadoStatsUsuario(long usuarioId, String estado) {
+        String body = restTemplate.getForEntity("/tareas/stats?usuario=" + usuarioId, String.class).getBody();
+        return ((Number) JsonPath.parse(body).read("$.porEstado['" + estado + "']")).longValue();
+    }
+
+    // Valida que el feed SSE envíe solo los cambios del usuario filtrado, junte los de una misma tarea y permita reanudar con Last-Event-ID
+    @Test
+    @DirtiesContext
+    void shouldStreamTareaChangesFilteredByUsuarioAndResume() throws Exception {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        BlockingQueue<String> lineas = new LinkedBlockingQueue<>();
+        CompletableFuture<HttpResponse<Void>> feed = httpClient.sendAsync(
+                HttpRequest.newBuilder(URI.create(restTemplate.getRootUri() + "/tareas/stream?usuario=3")).build(),
+                HttpResponse.BodyHandlers.ofLines()).thenApply(respuesta -> {
+                    respuesta.body().forEach(lineas::add);
+                    return null;
+                });
+        //Espera a que el suscriptor esté registrado antes de escribir
+        Thread.sleep(500);
+
+        Usuario juan = restTemplate.getForEntity("/usuarios/3", Usuario.class).getBody();
+        Usuario leonardo = restTemplate.getForEntity("/usuarios/1", Usuario.class).getBody();
+        URI deJuan = restTemplate.postForEntity("/tareas", new Tarea("Guion del programa", "Escribir el guion",
+                Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 3, 1), juan), Void.class).getHeaders().getLocation();
+        URI deLeonardo = restTemplate.postForEntity("/tareas", new Tarea("Otra tarea", "De otro usuario",
+                Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 3, 1), leonardo), Void.class).getHeaders().getLocation();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        restTemplate.exchange(deJuan, HttpMethod.PATCH, new HttpEntity<>("{\"estado\":\"En progreso\"}", headers), Void.class);
+        restTemplate.exchange(deJuan, HttpMethod.PATCH, new HttpEntity<>("{\"estado\":\"Completada\"}", headers), Void.class);
+
+        String idJuan = deJuan.getPath().substring(deJuan.getPath().lastIndexOf('/') + 1);
+        String idLeonardo = deLeonardo.getPath().substring(deLeonardo.getPath().lastIndexOf('/') + 1);
+        String ultimoId = null;
+        List<String> datos = new ArrayList<>();
+        long limite = System.currentTimeMillis() + 10_000;
+        while (datos.stream().noneMatch(dato -> dato.contains("\"Completada\"")) && System.currentTimeMillis() < limite) {
+            String linea = lineas.poll(200, TimeUnit.MILLISECONDS);
+            if (linea != null && linea.startsWith("data:")) {
+                datos.add(linea);
+            } else if (linea != null && linea.startsWith("id:")) {
+                ultimoId = linea.substring(3).trim();
+            }
+        }
+        feed.cancel(true);
+        assertThat(datos).isNotEmpty().allMatch(dato -> dato.contains("\"id\":" + idJuan + ","));
+        assertThat(datos).noneMatch(dato -> dato.contains("\"id\":" + idLeonardo + ","));
+        assertThat(datos.get(datos.size() - 1)).contains("\"Completada\"").contains("\"usuarioId\":3");
+
+        //Con Last-Event-ID solo llegan los cambios posteriores
+        restTemplate.delete(deJuan);
+        HttpResponse<java.util.stream.Stream<String>> reanudado = httpClient.send(
+                HttpRequest.newBuilder(URI.create(restTemplate.getRootUri() + "/tareas/stream?usuario=3"))
+                        .header("Last-Event-ID", ultimoId).build(), HttpResponse.BodyHandlers.ofLines());
+        try (java.util.stream.Stream<String> cuerpo = reanudado.body()) {
+            String evento = cuerpo.filter(linea -> linea.startsWith("event:")).findFirst().orElseThrow();
+            assertThat(evento).isEqualTo("event:eliminada");
+        }
+    }
+
+    // Valida que un POST repetido con la misma Idempotency-Key regrese la respuesta original sin crear otra tarea,
+    // y que la misma llave con otro cuerpo se rechace
+    @Test
+    @DirtiesContext
+    void shouldReplayCreateTareaWithSameIdempotencyKey() {
+        Usuario usuario = restTemplate.getForEntity("/usuarios/3", Usuario.class).getBody();
+        Tarea tarea = new Tarea("Idempotente", "Se crea una sola vez",
+                Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 7, 12), usuario);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "alta-tarea-1");
+
+        ResponseEntity<Void> original = restTemplate.postForEntity("/tareas", new HttpEntity<>(tarea, headers), Void.class);
+        assertThat(original.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(original.getHeaders().containsKey("Idempotent-Replayed")).isFalse();
+
+        ResponseEntity<Void> repetida = restTemplate.postForEntity("/tareas", new HttpEntity<>(tarea, headers), Void.class);
+        assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(repetida.getHeaders().getLocation()).isEqualTo(original.getHeaders().getLocation());
+        assertThat(repetida.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tarea where titulo = 'Idempotente'", Long.class)).isEqualTo(1);
+
+        tarea.setDescripcion("Otro cuerpo con la misma llave");
+        ResponseEntity<String> distinta = restTemplate.postForEntity("/tareas", new HttpEntity<>(tarea, headers), String.class);
+        assertThat(distinta.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tarea where titulo = 'Idempotente'", Long.class)).isEqualTo(1);
+    }
+
+    // Valida que varios POST simultáneos con la misma Idempotency-Key creen una sola tarea y reciban el mismo Location
+    @Test
+    @DirtiesContext
+    void shouldCollapseConcurrentCreatesWithSameIdempotencyKey() {
+        Usuario usuario = restTemplate.getForEntity("/usuarios/2", Usuario.class).getBody();
+        Tarea tarea = new Tarea("Simultanea", "Varios reintentos a la vez",
+                Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2027, 8, 1), usuario);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "alta-simultanea");
+
+        List<CompletableFuture<ResponseEntity<Void>>> solicitudes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            solicitudes.add(CompletableFuture.supplyAsync(() ->
+                    restTemplate.postForEntity("/tareas", new HttpEntity<>(tarea, headers), Void.class)));
+        }
+        List<ResponseEntity<Void>> respuestas = solicitudes.stream().map(CompletableFuture::join).toList();
+
+        assertThat(respuestas).allMatch(respuesta -> respuesta.getStatusCode() == HttpStatus.CREATED);
+        assertThat(respuestas).extracting(respuesta -> respuesta.getHeaders().getLocation()).containsOnly(respuestas.get(0).getHeaders().getLocation());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tarea where titulo = 'Simultanea'", Long.class)).isEqualTo(1);
+    }
+
+    // Valida que ?fields= regrese solo los campos pedidos en el listado y en la consulta por id, incluso anidados
+    @Test
+    void shouldReturnOnlyRequestedFields() {
+        ResponseEntity<String> listado = restTemplate.getForEntity("/tareas?fields=id,titulo,estado", String.class);
+        assertThat(listado.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Map<String, Object>> tareas = JsonPath.parse(listado.getBody()).read("$");
+        assertThat(tareas).hasSize(3).allSatisfy(tarea -> assertThat(tarea).containsOnlyKeys("id", "titulo", "estado"));
+
+        ResponseEntity<String> tarea = restTemplate.getForEntity("/tareas/1?fields=titulo,usuarioAsignado.nombre", String.class);
+        assertThat(tarea.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(tarea.getHeaders().getETag()).isNotNull();
+        DocumentContext documentContext = JsonPath.parse(tarea.getBody());
+        assertThat(documentContext.read("$", Map.class)).containsOnlyKeys("titulo", "usuarioAsignado");
+        assertThat(documentContext.read("$.usuarioAsignado", Map.class)).containsOnlyKeys("nombre");
+
+        //Pedir el objeto anidado completo incluye todas sus propiedades; sin ?fields= la respuesta no cambia
+        Map<String, Object> usuario = JsonPath.parse(restTemplate.getForEntity("/tareas/1?fields=usuarioAsignado", String.class).getBody())
+                .read("$.usuarioAsignado");
+        assertThat(usuario).containsOnlyKeys("id", "nombre");
+        Map<String, Object> completa = JsonPath.parse(restTemplate.getForEntity("/tareas/1", String.class).getBody()).read("$");
+        assertThat(completa).containsKeys("id", "titulo", "descripcion", "estado", "fechaLimite", "usuarioAsignado", "version");
+    }
+
+    // Valida que las respuestas JSON grandes se compriman con gzip y las chicas no
+    @Test
+    @DirtiesContext
+    void shouldCompressLargeJsonResponses() throws IOException {
+        Usuario usuario = restTemplate.getForEntity("/usuarios/1", Usuario.class).getBody();
+        List<Tarea> tareas = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            tareas.add(new Tarea("Tarea para comprimir " + i, "Descripcion que se repite en cada tarea del listado",
+                    Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 1, 1), usuario));
+        }
+        assertThat(restTemplate.postForEntity("/tareas/batch", tareas, String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ResponseEntity<byte[]> grande = restTemplate.exchange("/tareas", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertThat(grande.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(grande.getBody()))) {
+            int cantidad = JsonPath.parse(new String(entrada.readAllBytes(), StandardCharsets.UTF_8)).read("$.length()");
+            assertThat(cantidad).isEqualTo(43);
+        }
+
+        ResponseEntity<byte[]> chica = restTemplate.exchange("/tareas/1", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertThat(chica.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
 }
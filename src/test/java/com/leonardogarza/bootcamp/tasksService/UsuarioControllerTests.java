@@ -2,12 +2,15 @@ package com.leonardogarza.bootcamp.tasksService;
 
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
+import com.leonardogarza.bootcamp.tasksService.model.Tarea;
 import com.leonardogarza.bootcamp.tasksService.model.Usuario;
+import com.leonardogarza.bootcamp.tasksService.util.Constantes;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +18,9 @@ import net.minidev.json.JSONArray;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -45,6 +51,21 @@ public class UsuarioControllerTests {
         assertThat(nombres).containsExactlyInAnyOrder("Leonardo G", "Mich B", "Juan Carlos Bodoque", "Rodolfo el Reno");
     }
 
+    // Valida que el listado de usuarios se pagine por llave
+    @Test
+    void retornaListaUsuariosPaginada() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/usuarios?size=3", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$[*].id");
+        assertThat(ids).containsExactly(1, 2, 3);
+
+        String cursor = response.getHeaders().getFirst(Constantes.HEADER_SIGUIENTE_CURSOR);
+        ResponseEntity<String> siguiente = restTemplate.getForEntity("/usuarios?size=3&cursor=" + cursor, String.class);
+        JSONArray idsSiguiente = JsonPath.parse(siguiente.getBody()).read("$[*].id");
+        assertThat(idsSiguiente).containsExactly(4);
+        assertThat(siguiente.getHeaders().containsKey(Constantes.HEADER_SIGUIENTE_CURSOR)).isFalse();
+    }
+
     // Valida que retorne un usuario buscado por Id correctamente
     @Test
     void retornaUnUsuarioPorId() {
@@ -67,6 +88,42 @@ public class UsuarioControllerTests {
         assertThat(email).isEqualTo("notaverde@21minutos.com");
     }
 
+    // Valida que se listen solo las tareas del usuario, filtradas por estado y paginadas por llave
+    @Test
+    @DirtiesContext
+    void retornaTareasDelUsuario() {
+        Usuario usuario = restTemplate.getForEntity("/usuarios/4", Usuario.class).getBody();
+        List<Tarea> tareas = List.of(
+                new Tarea("Regalos", "Comprar regalos", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 12, 1), usuario),
+                new Tarea("Trineo", "Revisar el trineo", Constantes.TAREA_ESTADO_EN_PROGRESO, LocalDate.of(2027, 12, 10), usuario),
+                new Tarea("Mapa", "Trazar la ruta", Constantes.TAREA_ESTADO_PENDIENTE, LocalDate.of(2027, 12, 20), usuario));
+        restTemplate.postForEntity("/tareas/batch", tareas, String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/usuarios/4/tareas?size=2", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray titulos = JsonPath.parse(response.getBody()).read("$[*].titulo");
+        assertThat(titulos).containsExactly("Regalos", "Trineo");
+        String cursor = response.getHeaders().getFirst(Constantes.HEADER_SIGUIENTE_CURSOR);
+        JSONArray siguiente = JsonPath.parse(restTemplate.getForEntity("/usuarios/4/tareas?size=2&cursor=" + cursor, String.class).getBody()).read("$[*].titulo");
+        assertThat(siguiente).containsExactly("Mapa");
+
+        JSONArray pendientes = JsonPath.parse(restTemplate.getForEntity("/usuarios/4/tareas?estado=Pendiente", String.class).getBody()).read("$[*].titulo");
+        assertThat(pendientes).containsExactly("Regalos", "Mapa");
+
+        Number total = JsonPath.parse(restTemplate.getForEntity("/usuarios/4/tareas/count", String.class).getBody()).read("$.total");
+        assertThat(total).isEqualTo(3);
+        Number totalPendientes = JsonPath.parse(restTemplate.getForEntity("/usuarios/4/tareas/count?estado=Pendiente", String.class).getBody()).read("$.total");
+        assertThat(totalPendientes).isEqualTo(2);
+    }
+
+    // Valida que las tareas por usuario regresen 404 si el usuario no existe y 400 si el estado es inválido
+    @Test
+    void shouldNotListTareasOfUnknownUsuarioOrInvalidEstado() {
+        assertThat(restTemplate.getForEntity("/usuarios/9999/tareas", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.getForEntity("/usuarios/9999/tareas/count", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.getForEntity("/usuarios/3/tareas?estado=Invalido", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     // Valida que el servicio devuelva un 404 cuando no encuentra un usuario
     @Test
     void shouldNotReturnAnUsuarioWithAnUnknownId() {
@@ -100,6 +157,43 @@ public class UsuarioControllerTests {
         assertThat(email).isEqualTo("prueba@prueba.com");
     }
 
+    // Valida que el alta por lote cree todos los usuarios
+    @Test
+    @DirtiesContext
+    void shouldCreateUsuariosInBatch() {
+        List<Usuario> usuarios = List.of(new Usuario("Tulio Triviño", "tulio@31minutos.com"),
+                new Usuario("Patana", "patana@31minutos.com"));
+        ResponseEntity<String> response = restTemplate.postForEntity("/usuarios/batch", usuarios, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray status = documentContext.read("$[*].status");
+        assertThat(status).containsExactly(201, 201);
+
+        Number id = documentContext.read("$[1].id");
+        String nombre = JsonPath.parse(restTemplate.getForEntity("/usuarios/" + id, String.class).getBody()).read("$.nombre");
+        assertThat(nombre).isEqualTo("Patana");
+    }
+
+    // Valida que la actualización por lote guarde los usuarios existentes y reporte 404 para los demás
+    @Test
+    @DirtiesContext
+    void shouldUpdateUsuariosInBatch() {
+        Usuario existente = new Usuario("Juan Carlos Bodoque", "bodoque@31minutos.com");
+        existente.setId(1L);
+        Usuario inexistente = new Usuario("Policarpo Avendaño", "policarpo@31minutos.com");
+        inexistente.setId(999L);
+
+        ResponseEntity<String> response = restTemplate.exchange("/usuarios/batch", HttpMethod.PUT,
+                new HttpEntity<>(List.of(existente, inexistente)), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray status = JsonPath.parse(response.getBody()).read("$[*].status");
+        assertThat(status).containsExactly(200, 404);
+
+        String nombre = JsonPath.parse(restTemplate.getForEntity("/usuarios/1", String.class).getBody()).read("$.nombre");
+        assertThat(nombre).isEqualTo("Juan Carlos Bodoque");
+    }
+
     // Valida que el servicio actualice correctamente un usuario existente
     @Test
     @DirtiesContext
@@ -124,6 +218,46 @@ public class UsuarioControllerTests {
         assertThat(email).isEqualTo("prueba@prueba.com");
     }
 
+    // Valida que el usuario se pueda consultar condicionalmente y que un PUT con ETag vencido regrese 412
+    @Test
+    @DirtiesContext
+    void shouldUseEtagsForUsuario() {
+        String etag = restTemplate.getForEntity("/usuarios/2", String.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        assertThat(restTemplate.exchange("/usuarios/2", HttpMethod.GET, new HttpEntity<>(headers), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        HttpHeaders ifMatch = new HttpHeaders();
+        ifMatch.setIfMatch(etag);
+        Usuario cambio = new Usuario("Juanin Juan Harry", "juanin@31minutos.cl");
+        assertThat(restTemplate.exchange("/usuarios/2", HttpMethod.PUT, new HttpEntity<>(cambio, ifMatch), Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.exchange("/usuarios/2", HttpMethod.PUT, new HttpEntity<>(cambio, ifMatch), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(restTemplate.exchange("/usuarios/2", HttpMethod.GET, new HttpEntity<>(headers), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    // Valida que el PATCH de usuario cambie solo los campos enviados
+    @Test
+    @DirtiesContext
+    void shouldPatchUsuario() {
+        restTemplate.getForEntity("/usuarios/2", String.class);
+        ResponseEntity<Void> response = restTemplate.exchange("/usuarios/2", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("nombre", "Juanin")), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        Usuario usuario = restTemplate.getForEntity("/usuarios/2", Usuario.class).getBody();
+        assertThat(usuario.getNombre()).isEqualTo("Juanin");
+        assertThat(usuario.getEmail()).isNotNull();
+
+        assertThat(restTemplate.exchange("/usuarios/9999", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("nombre", "Nadie")), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.exchange("/usuarios/2", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of()), String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     // Valida que el servicio regrese un not found cuando se intenta actualizar un usuario inexistente
     @Test
     @DirtiesContext
@@ -167,4 +301,16 @@ public class UsuarioControllerTests {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
     }
 
+    // Valida que ?fields= regrese solo los campos pedidos de los usuarios
+    @Test
+    void shouldReturnOnlyRequestedUsuarioFields() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/usuarios?fields=id,nombre", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Map<String, Object>> usuarios = JsonPath.parse(response.getBody()).read("$");
+        assertThat(usuarios).isNotEmpty().allSatisfy(usuario -> assertThat(usuario).containsOnlyKeys("id", "nombre"));
+
+        Map<String, Object> usuario = JsonPath.parse(restTemplate.getForEntity("/usuarios/1?fields=email", String.class).getBody()).read("$");
+        assertThat(usuario).containsOnlyKeys("email");
+    }
+
 }